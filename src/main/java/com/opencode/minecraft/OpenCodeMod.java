@@ -3,10 +3,23 @@ package com.opencode.minecraft;
 import com.opencode.minecraft.client.OpenCodeClient;
 import com.opencode.minecraft.command.OpenCodeCommand;
 import com.opencode.minecraft.config.ConfigManager;
+import com.opencode.minecraft.config.ModConfig;
 import com.opencode.minecraft.game.PauseController;
+import com.opencode.minecraft.game.WorldEditApplier;
+import com.opencode.minecraft.util.WorldKeys;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ServerInfo;
+import net.minecraft.client.option.KeyBinding;
+import net.minecraft.client.util.InputUtil;
+import org.lwjgl.glfw.GLFW;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,39 +27,135 @@ public class OpenCodeMod implements ClientModInitializer {
     public static final String MOD_ID = "opencode";
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
 
-    private static OpenCodeClient client;
+    // Created on first use; see start()
+    private static volatile OpenCodeClient client;
+    private static volatile ConfigManager configManager;
     private static PauseController pauseController;
-    private static ConfigManager configManager;
+    private static WorldEditApplier<BlockState> worldEdits;
+    private static KeyBinding transcriptKey;
 
     @Override
     public void onInitializeClient() {
+        long startedAt = System.nanoTime();
         LOGGER.info("Initializing OpenCode Minecraft client");
 
-        // Initialize configuration
-        configManager = new ConfigManager();
-        configManager.load();
-
-        // Initialize pause controller
+        // Initialize pause controller; it is enabled from the config once that loads
         pauseController = new PauseController();
-        pauseController.setEnabled(configManager.getConfig().pauseEnabled);
-
-        // Initialize OpenCode client
-        client = new OpenCodeClient(configManager.getConfig(), pauseController);
+        worldEdits = new WorldEditApplier<>();
 
         // Register commands
         ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) -> {
             OpenCodeCommand.register(dispatcher);
         });
 
+        // Start resuming a world's session while the world is still loading
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+            // Drop any edits that arrived while the last world was closing
+            worldEdits.clear();
+            getClient().onWorldLoading(WorldKeys.forSave(server));
+        });
+        // Agent block edits and their undo journal belong to the world being closed
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> worldEdits.clear());
+        ClientPlayConnectionEvents.INIT.register((handler, minecraftClient) -> {
+            ServerInfo server = minecraftClient.getCurrentServerEntry();
+            if (!minecraftClient.isIntegratedServerRunning() && server != null) {
+                getClient().onWorldLoading(WorldKeys.forServer(server));
+            }
+        });
+        ClientPlayConnectionEvents.JOIN.register((handler, sender, minecraftClient) ->
+                pauseController.onWorldJoin(minecraftClient.isIntegratedServerRunning()));
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, minecraftClient) -> {
+            pauseController.onWorldUnload();
+            OpenCodeClient current = client;
+            if (current != null) {
+                current.onWorldLeft();
+            }
+        });
+
+        // Register key binding for the transcript screen
+        transcriptKey = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+                "key.opencode.transcript",
+                InputUtil.Type.KEYSYM,
+                GLFW.GLFW_KEY_O,
+                "key.categories.opencode"
+        ));
+
         // Register tick event for status updates
         ClientTickEvents.END_CLIENT_TICK.register(minecraftClient -> {
             pauseController.tick();
+            OpenCodeClient current = client;
+            if (current != null) {
+                current.tick();
+            }
+
+            while (transcriptKey.wasPressed()) {
+                minecraftClient.setScreen(getClient().createTranscriptScreen());
+            }
         });
 
-        LOGGER.info("OpenCode Minecraft client initialized");
+        // Flush journals and config, and stop background threads on exit
+        ClientLifecycleEvents.CLIENT_STOPPING.register(minecraftClient -> {
+            if (client != null) {
+                client.shutdown();
+            }
+            if (configManager != null) {
+                configManager.shutdown();
+            }
+        });
+
+        LOGGER.info("OpenCode Minecraft client initialized in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
     }
 
+    /**
+     * Loads the config and starts the OpenCode client on first use: the first
+     * world load, command or key press. Until then neither Gson, java.net.http
+     * nor any of the client's threads are touched, so a game that never uses
+     * the mod doesn't pay for it at launch.
+     */
+    private static synchronized void start() {
+        if (client != null) return;
+        long startedAt = System.nanoTime();
+
+        // Initialize configuration
+        if (configManager == null) {
+            ConfigManager manager = new ConfigManager();
+            manager.load();
+            configManager = manager;
+        }
+        applyPauseConfig(configManager.getConfig());
+
+        // Initialize OpenCode client
+        client = new OpenCodeClient(configManager.getConfig(), pauseController);
+
+        // Apply config changes (commands or edits to opencode.json) without a restart
+        configManager.addChangeListener(() -> {
+            applyPauseConfig(configManager.getConfig());
+            client.onConfigChanged();
+        });
+        configManager.startWatching(task -> MinecraftClient.getInstance().execute(task));
+
+        LOGGER.info("OpenCode client started in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private static void applyPauseConfig(ModConfig config) {
+        pauseController.setEnabled(config.pauseEnabled);
+        pauseController.setTickFreeze(!"cancel".equals(config.pauseBackend));
+        pauseController.setGovernor(config.tickRateGovernor, config.governorTokensPerSecond);
+        pauseController.setPausedRendering(config.pausedFps, config.pausedHideWorld);
+        pauseController.setOverlaySpinner(config.pauseOverlaySpinner);
+        pauseController.setSaveOnPause(config.saveOnPause);
+        pauseController.setPregeneration(config.pregenerateChunks, config.pregenerateRadius,
+                config.pregenerateBudgetMs);
+        worldEdits.setBudgetMs(config.worldEditBudgetMs);
+    }
+
+    /**
+     * Gets the OpenCode client, starting it if this is its first use
+     */
     public static OpenCodeClient getClient() {
+        if (client == null) {
+            start();
+        }
         return client;
     }
 
@@ -54,7 +163,20 @@ public class OpenCodeMod implements ClientModInitializer {
         return pauseController;
     }
 
+    /**
+     * Gets the queue of agent block edits shared with the integrated server
+     */
+    public static WorldEditApplier<BlockState> getWorldEdits() {
+        return worldEdits;
+    }
+
+    /**
+     * Gets the config manager, starting the client if this is its first use
+     */
     public static ConfigManager getConfigManager() {
+        if (configManager == null) {
+            start();
+        }
         return configManager;
     }
 }
@@ -3,17 +3,33 @@ package com.opencode.minecraft.client;
 import com.opencode.minecraft.OpenCodeMod;
 import com.opencode.minecraft.client.http.OpenCodeHttpClient;
 import com.opencode.minecraft.client.http.SseEvent;
+import com.opencode.minecraft.client.session.HistoryMessage;
+import com.opencode.minecraft.client.session.PromptSpool;
+import com.opencode.minecraft.client.session.SessionHistory;
 import com.opencode.minecraft.client.session.SessionInfo;
 import com.opencode.minecraft.client.session.SessionManager;
+import com.opencode.minecraft.client.session.SessionPool;
+import com.opencode.minecraft.client.session.SessionSearchIndex;
 import com.opencode.minecraft.client.session.SessionStatus;
 import com.opencode.minecraft.config.ModConfig;
 import com.opencode.minecraft.game.MessageRenderer;
 import com.opencode.minecraft.game.PauseController;
+import com.opencode.minecraft.game.TranscriptBuffer;
+import com.opencode.minecraft.game.TranscriptScreen;
+import com.opencode.minecraft.game.WorldContextCapture;
+import com.opencode.minecraft.game.WorldEdit;
+import com.opencode.minecraft.game.WorldEditParser;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.math.BlockPos;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -22,21 +38,47 @@ import java.util.concurrent.TimeUnit;
  * Manages HTTP client, session, and event handling.
  */
 public class OpenCodeClient {
+    // How long shutdown waits for spare sessions to be deleted
+    private static final long SPARE_CLEANUP_SECONDS = 2;
+
     private final OpenCodeHttpClient httpClient;
     private final SessionManager sessionManager;
     private final PauseController pauseController;
     private final MessageRenderer messageRenderer;
+    private final SessionSearchIndex searchIndex;
+    private final PromptSpool promptSpool;
+    private final SessionPool sessionPool;
+    private final WorldContextCapture worldContext = new WorldContextCapture();
     private final ModConfig config;
 
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
     private volatile boolean initialized = false;
+    // Bumped on reconfiguration so retries aimed at the old server stop
+    private volatile int connectGeneration = 0;
+    // History being paged into the transcript; game thread only
+    private SessionHistory activeHistory;
+    // World being played or loaded, used to bind and resume its session
+    private volatile String worldKey;
+    // Snapshot from /oc context, kept until a prompt carrying it is sent; game thread only
+    private String pendingWorldContext;
+    private boolean sendingWorldContext = false;
+    // Block edits being read out of each streaming text part; game thread only
+    private final Map<String, WorldEditParser> editParsers = new HashMap<>();
+    // Spool drain state; game thread only
+    private boolean drainingSpool = false;
+    private long nextSpoolAttempt = 0;
 
     public OpenCodeClient(ModConfig config, PauseController pauseController) {
         this.config = config;
         this.pauseController = pauseController;
         this.httpClient = new OpenCodeHttpClient(config);
-        this.sessionManager = new SessionManager(httpClient);
-        this.messageRenderer = new MessageRenderer();
+        this.sessionManager = new SessionManager(httpClient, config.historyPageSize);
+        this.sessionPool = new SessionPool(httpClient::createSession, httpClient::deleteSession,
+                System::currentTimeMillis);
+        Path dataDirectory = OpenCodeMod.getConfigManager().getDataDirectory();
+        this.searchIndex = new SessionSearchIndex(dataDirectory.resolve("search.log"));
+        this.messageRenderer = new MessageRenderer(config, dataDirectory.resolve("transcripts"), searchIndex);
+        this.promptSpool = openSpool(dataDirectory.resolve("prompts.spool"));
 
         // Listen for session status changes
         sessionManager.addStatusListener(this::onStatusChange);
@@ -48,14 +90,34 @@ public class OpenCodeClient {
         initialize();
     }
 
+    private static PromptSpool openSpool(Path file) {
+        try {
+            PromptSpool spool = PromptSpool.open(file);
+            if (spool.size() > 0) {
+                OpenCodeMod.LOGGER.info("{} queued prompt(s) waiting to be sent", spool.size());
+            }
+            return spool;
+        } catch (IOException e) {
+            OpenCodeMod.LOGGER.error("Failed to open prompt spool, offline prompts are disabled", e);
+            return null;
+        }
+    }
+
     private void initialize() {
+        // Replay the search index in the background; updates queue up behind it
+        searchIndex.loadAsync();
+
         // Check health and connect
-        scheduler.schedule(this::connect, 1, TimeUnit.SECONDS);
+        int generation = connectGeneration;
+        scheduler.schedule(() -> connect(generation), 1, TimeUnit.SECONDS);
     }
 
-    private void connect() {
+    private void connect(int generation) {
+        if (generation != connectGeneration) return;
+
         httpClient.checkHealth()
                 .thenAccept(healthy -> {
+                    if (generation != connectGeneration) return;
                     if (healthy) {
                         OpenCodeMod.LOGGER.info("Connected to OpenCode server");
                         sessionManager.onConnected();
@@ -63,34 +125,118 @@ public class OpenCodeClient {
                         // Subscribe to events
                         httpClient.subscribeToEvents(this::handleEvent);
 
-                        // Resume last session if available
-                        if (config.lastSessionId != null) {
-                            sessionManager.useSession(config.lastSessionId)
-                                    .exceptionally(e -> {
-                                        OpenCodeMod.LOGGER.debug("Could not resume session: {}", e.getMessage());
-                                        return null;
-                                    });
+                        // Resume the current world's session, or the last one used
+                        String worldSession = boundSession();
+                        String resumeId = worldSession != null ? worldSession : config.lastSessionId;
+                        if (resumeId != null) {
+                            resumeSession(resumeId);
                         }
 
                         initialized = true;
                     } else {
-                        scheduleReconnect();
+                        scheduleReconnect(generation);
                     }
                 })
                 .exceptionally(e -> {
                     OpenCodeMod.LOGGER.debug("Connection failed: {}", e.getMessage());
-                    scheduleReconnect();
+                    scheduleReconnect(generation);
                     return null;
                 });
     }
 
-    private void scheduleReconnect() {
+    private void scheduleReconnect(int generation) {
         if (config.autoReconnect) {
-            scheduler.schedule(this::connect, config.reconnectIntervalMs, TimeUnit.MILLISECONDS);
+            scheduler.schedule(() -> connect(generation), config.reconnectIntervalMs, TimeUnit.MILLISECONDS);
         }
     }
 
+    private void resumeSession(String sessionId) {
+        sessionManager.useSession(sessionId)
+                .thenAccept(this::onSessionChanged)
+                .exceptionally(e -> {
+                    OpenCodeMod.LOGGER.debug("Could not resume session: {}", e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Called as soon as a world starts loading: when the integrated server is
+     * starting, or when connecting to a multiplayer server. Switches to the
+     * session bound to that world in the background, so its metadata and
+     * recent history are ready by the time the player spawns.
+     * May be called from the server thread.
+     */
+    public void onWorldLoading(String worldKey) {
+        this.worldKey = worldKey;
+
+        // First visit: the world is bound once a session is created or used in it
+        String sessionId = boundSession();
+        if (sessionId == null) return;
+
+        SessionInfo current = sessionManager.getCurrentSession();
+        if (current != null && current.getId().equals(sessionId)) return;
+
+        // Not connected yet: connect() resumes the bound session
+        if (!isReady()) return;
+
+        OpenCodeMod.LOGGER.info("Prefetching session {} for {}", sessionId, worldKey);
+        resumeSession(sessionId);
+    }
+
+    /**
+     * Called when leaving a world
+     */
+    public void onWorldLeft() {
+        worldKey = null;
+        editParsers.clear();
+    }
+
+    private String boundSession() {
+        String key = worldKey;
+        return key != null ? config.worldSessions.get(key) : null;
+    }
+
+    private void rememberSession(SessionInfo session) {
+        OpenCodeMod.getConfigManager().setLastSessionId(session.getId());
+        String key = worldKey;
+        if (key != null) {
+            OpenCodeMod.getConfigManager().bindWorldSession(key, session.getId());
+        }
+    }
+
+    /**
+     * Called on the game thread after the config changed. If the server URL or
+     * working directory moved, drains in-flight requests, switches the HTTP
+     * client over and reconnects, all without restarting the game.
+     */
+    public void onConfigChanged() {
+        if (httpClient.isConfiguredFor(config)) return;
+
+        int generation = ++connectGeneration;
+        initialized = false;
+        sessionManager.onDisconnected();
+        messageRenderer.sendSystemMessage("Reconnecting to " + config.serverUrl + "...");
+
+        // Spares belong to the old server or directory; the drain lets their deletion finish
+        sessionPool.clear();
+        httpClient.reconfigure(config)
+                .thenRun(() -> connect(generation));
+    }
+
     private void handleEvent(SseEvent event) {
+        // Text deltas go straight into their part's buffer on the SSE thread;
+        // the renderer drains them on the game thread every tick
+        if ("message.part.updated".equals(event.getType()) && "text".equals(event.getPartType())) {
+            String messageId = event.getMessageId();
+            String partId = event.getPartId();
+            if (event.hasDelta()) {
+                messageRenderer.appendDelta(messageId, partId, event.getDelta());
+            }
+            if (event.isPartCompleted()) {
+                messageRenderer.completePart(messageId, partId);
+            }
+        }
+
         // Dispatch to main thread
         MinecraftClient.getInstance().execute(() -> {
             switch (event.getType()) {
@@ -98,6 +244,7 @@ public class OpenCodeClient {
                     String statusType = event.getStatusType();
                     if ("idle".equals(statusType)) {
                         sessionManager.onSessionIdle();
+                        messageRenderer.flushCurrentMessage();
                         messageRenderer.sendSystemMessage("Ready for input");
                     } else if ("busy".equals(statusType)) {
                         sessionManager.onSessionBusy();
@@ -132,22 +279,22 @@ public class OpenCodeClient {
 
         switch (partType) {
             case "text" -> {
-                // Text output with delta
+                // Text output with delta - content was already buffered in handleEvent
                 if (event.hasDelta()) {
                     sessionManager.onDeltaReceived();
                     pauseController.onDeltaReceived();
-                    String delta = event.getDelta();
-                    if (delta != null && !delta.isEmpty()) {
-                        messageRenderer.appendDelta(delta);
-                    }
+                }
+                if (config.worldEdits) {
+                    readWorldEdits(event);
                 }
             }
             case "tool" -> {
-                // Tool invocation
+                // Tool invocation - collapsed into one entry per call ID
                 String toolName = event.getToolName();
                 String toolState = event.getToolState();
                 if (toolName != null && toolState != null) {
-                    messageRenderer.sendToolMessage(toolName, toolState);
+                    messageRenderer.onToolUpdate(event.getCallId(), toolName, toolState,
+                            event.getToolStartTime(), event.getToolEndTime());
                 }
             }
             case "step-start" -> {
@@ -186,6 +333,49 @@ public class OpenCodeClient {
         }
     }
 
+    /**
+     * Queues the block edits in a text part's newly completed lines for the
+     * integrated server. Relative coordinates are from where the player
+     * stood when the part's first code block appeared.
+     */
+    private void readWorldEdits(SseEvent event) {
+        String partId = event.getPartId();
+        String text = event.getTextContent();
+        if (partId == null || text == null) return;
+
+        boolean completed = event.isPartCompleted();
+        MinecraftClient client = MinecraftClient.getInstance();
+        WorldEditParser parser = editParsers.get(partId);
+        if (parser == null) {
+            // Only look for a code fence when a backtick arrives, not on every delta
+            String delta = event.getDelta();
+            if (!completed && (delta == null || delta.indexOf('`') < 0)) return;
+            // Edits only make sense in a world we host
+            if (!text.contains("```") || !client.isIntegratedServerRunning() || client.player == null) return;
+
+            BlockPos anchor = client.player.getBlockPos();
+            parser = new WorldEditParser(anchor.getX(), anchor.getY(), anchor.getZ());
+            editParsers.put(partId, parser);
+        }
+
+        List<WorldEdit> edits = completed ? parser.finish(text) : parser.feed(text);
+        for (WorldEdit edit : edits) {
+            OpenCodeMod.getWorldEdits().submit(partId, edit);
+        }
+
+        if (completed) {
+            editParsers.remove(partId);
+            if (parser.getEditCount() > 0) {
+                messageRenderer.sendSystemMessage("Building " + parser.getBlockCount() + " blocks from "
+                        + parser.getEditCount() + " edits; /oc undo reverts them");
+            }
+            if (parser.getRejected() > 0) {
+                messageRenderer.sendErrorMessage("Skipped " + parser.getRejected()
+                        + " commands: only setblock and fill are supported");
+            }
+        }
+    }
+
     private void handleResponse(String line) {
         // Handle streaming JSON response from prompt
         // The SSE events will handle the actual content
@@ -196,21 +386,44 @@ public class OpenCodeClient {
     }
 
     /**
-     * Creates a new session
+     * Creates a new session, handing out the warm spare if there is one
      */
     public CompletableFuture<SessionInfo> createSession() {
-        return sessionManager.createSession()
+        SessionInfo spare = config.warmSessionPool ? sessionPool.take(config.workingDirectory) : null;
+        return sessionManager.createSession(spare)
                 .thenApply(session -> {
-                    OpenCodeMod.getConfigManager().setLastSessionId(session.getId());
+                    rememberSession(session);
+                    onSessionChanged(session);
                     return session;
                 });
     }
 
     /**
-     * Lists all sessions
+     * Lists all sessions, leaving out unused spares
      */
     public CompletableFuture<List<SessionInfo>> listSessions() {
-        return sessionManager.listSessions();
+        return sessionManager.listSessions()
+                .thenApply(sessions -> {
+                    sessions.removeIf(session -> sessionPool.isSpare(session.getId()));
+                    for (SessionInfo session : sessions) {
+                        searchIndex.updateSession(session.getId(), session.getTitle(), session.getUpdatedAt());
+                    }
+                    return sessions;
+                });
+    }
+
+    /**
+     * Searches titles and transcripts of known sessions locally
+     */
+    public List<SessionSearchIndex.Result> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Returns true once the local search index has finished loading
+     */
+    public boolean isSearchReady() {
+        return searchIndex.isLoaded();
     }
 
     /**
@@ -219,25 +432,100 @@ public class OpenCodeClient {
     public CompletableFuture<SessionInfo> useSession(String sessionId) {
         return sessionManager.useSession(sessionId)
                 .thenApply(session -> {
-                    OpenCodeMod.getConfigManager().setLastSessionId(session.getId());
+                    rememberSession(session);
+                    onSessionChanged(session);
                     return session;
                 });
     }
 
+    private void onSessionChanged(SessionInfo session) {
+        searchIndex.updateSession(session.getId(), session.getTitle(), session.getUpdatedAt());
+        SessionHistory history = sessionManager.getHistory();
+        MinecraftClient.getInstance().execute(() -> {
+            activeHistory = null;
+            messageRenderer.onSessionChanged(session.getId()).thenAccept(restored -> {
+                // A journaled transcript already shows this session; otherwise page in server history.
+                // Non-zero also covers a newer switch having superseded this one.
+                if (restored != 0 || history == null || !history.getSessionId().equals(session.getId())) {
+                    return;
+                }
+                activeHistory = history;
+                history.getFirstPage()
+                        .thenAccept(messages -> showHistory(history, messages, true))
+                        .exceptionally(e -> {
+                            OpenCodeMod.LOGGER.warn("Could not load session history: {}", e.getMessage());
+                            return null;
+                        });
+            });
+        });
+    }
+
+    /**
+     * Loads the next older page of history into the transcript, if any.
+     * Called from the transcript screen when it is scrolled to the top.
+     */
+    private void loadOlderHistory() {
+        SessionHistory history = activeHistory;
+        if (history == null || history.isExhausted()) return;
+
+        history.loadNextPage()
+                .thenAccept(messages -> {
+                    if (!messages.isEmpty() || history.isExhausted()) {
+                        showHistory(history, messages, false);
+                    }
+                })
+                .exceptionally(e -> {
+                    OpenCodeMod.LOGGER.warn("Could not load older history: {}", e.getMessage());
+                    return null;
+                });
+    }
+
+    private void showHistory(SessionHistory history, List<HistoryMessage> messages, boolean firstPage) {
+        MinecraftClient.getInstance().execute(() -> {
+            // Session changed while the page was loading
+            if (activeHistory != history) return;
+            messageRenderer.showHistory(messages, history.isExhausted(), firstPage);
+        });
+    }
+
     /**
      * Sends a prompt to the current session via the TUI.
      * Response will come through SSE events.
      */
     public CompletableFuture<Void> sendPrompt(String text) {
+        SessionInfo session = sessionManager.getCurrentSession();
+        if (session == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No active session"));
+        }
+
+        // Attach a snapshot taken with /oc context, or take one now if always on
+        String attached = takeWorldContext();
+        CompletableFuture<String> context;
+        if (attached != null) {
+            context = CompletableFuture.completedFuture(attached);
+        } else if (config.autoWorldContext) {
+            // Joins a snapshot already being taken rather than going without
+            context = worldContext.capture(config.worldContextRadius)
+                    .exceptionally(e -> {
+                        OpenCodeMod.LOGGER.warn("Could not snapshot the world: {}", e.getMessage());
+                        return null;
+                    });
+        } else {
+            context = CompletableFuture.completedFuture(null);
+        }
+
         pauseController.setUserTyping(false);
         pauseController.setStatus(SessionStatus.BUSY);
         messageRenderer.addUserMessage(text);
 
-        return sessionManager.sendPrompt(text)
+        return context
+                .thenCompose(snapshot -> sessionManager.sendPrompt(session.getId(), text, snapshot))
                 .thenAccept(response -> {
                     // Prompt was sent to TUI, response will come via SSE
                     MinecraftClient.getInstance().execute(() -> {
-                        if (response != null && response.startsWith("Error:")) {
+                        boolean failed = response != null && response.startsWith("Error:");
+                        finishWorldContext(attached, !failed);
+                        if (failed) {
                             messageRenderer.sendErrorMessage(response);
                             pauseController.setStatus(SessionStatus.IDLE);
                         }
@@ -246,6 +534,158 @@ public class OpenCodeClient {
                 });
     }
 
+    /**
+     * Gets the /oc context snapshot for a prompt about to be sent, or null if
+     * there is none or another prompt is already carrying it. It stays
+     * pending until {@link #finishWorldContext} reports the send went through.
+     */
+    private String takeWorldContext() {
+        if (pendingWorldContext == null || sendingWorldContext) return null;
+        sendingWorldContext = true;
+        return pendingWorldContext;
+    }
+
+    /**
+     * Forgets the snapshot once a prompt carrying it was sent, or keeps it for
+     * the next prompt if the send failed. Does nothing if none was attached.
+     */
+    private void finishWorldContext(String attached, boolean sent) {
+        if (attached == null) return;
+        sendingWorldContext = false;
+        if (sent && pendingWorldContext == attached) {
+            pendingWorldContext = null;
+        }
+    }
+
+    /**
+     * Snapshots the blocks within radius of the player, off the game thread
+     * as far as possible, and keeps it to attach to the next prompt.
+     * Must be called on the game thread; completes with the encoded snapshot.
+     */
+    public CompletableFuture<String> captureWorldContext(int radius) {
+        return worldContext.capture(radius)
+                .thenApply(snapshot -> {
+                    MinecraftClient.getInstance().execute(() -> pendingWorldContext = snapshot);
+                    return snapshot;
+                });
+    }
+
+    /**
+     * Durably queues a prompt to be sent once the server is reachable and idle.
+     * The write happens on the spool's thread; completes with the number of
+     * prompts queued, or fails if it could not be stored.
+     */
+    public CompletableFuture<Integer> queuePrompt(String text) {
+        if (promptSpool == null) {
+            return CompletableFuture.failedFuture(new IOException("Prompt spool is unavailable"));
+        }
+
+        SessionInfo session = sessionManager.getCurrentSession();
+        return promptSpool.enqueueAsync(session != null ? session.getId() : null, text)
+                .whenComplete((queued, error) -> {
+                    if (error != null) {
+                        OpenCodeMod.LOGGER.error("Failed to queue prompt", error);
+                    }
+                });
+    }
+
+    /**
+     * Gets the number of queued prompts not yet sent
+     */
+    public int getQueuedPromptCount() {
+        return promptSpool != null ? promptSpool.size() : 0;
+    }
+
+    /**
+     * Sends the oldest queued prompt once connected and idle. The next one
+     * follows after the server has finished with it, keeping the order.
+     */
+    private void drainSpool() {
+        if (promptSpool == null || drainingSpool || promptSpool.size() == 0) return;
+        if (!isReady() || sessionManager.getStatus() != SessionStatus.IDLE) return;
+        if (System.currentTimeMillis() < nextSpoolAttempt) return;
+
+        // Still being written
+        PromptSpool.Entry entry = promptSpool.peek();
+        if (entry == null) return;
+        SessionInfo current = sessionManager.getCurrentSession();
+        String sessionId = entry.getSessionId() != null ? entry.getSessionId()
+                : current != null ? current.getId() : null;
+        if (sessionId == null) return;
+
+        drainingSpool = true;
+        messageRenderer.sendSystemMessage("Sending queued prompt (" + promptSpool.size() + " left)");
+        messageRenderer.addUserMessage(entry.getText());
+        pauseController.setStatus(SessionStatus.BUSY);
+
+        // A snapshot taken with /oc context while offline goes with the first queued prompt
+        String attached = takeWorldContext();
+
+        // A previous attempt may have reached the server even though it reported an error
+        CompletableFuture<Boolean> delivered = entry.getMessageId() != null
+                ? sessionManager.hasMessage(sessionId, entry.getMessageId())
+                : CompletableFuture.completedFuture(false);
+        delivered
+                .thenCompose(already -> already
+                        ? CompletableFuture.completedFuture("Message sent")
+                        : sessionManager.sendPrompt(sessionId, entry.getText(), attached, entry.getMessageId()))
+                .handle((response, error) -> error != null ? "Error: " + error.getMessage() : response)
+                .thenAccept(response -> {
+                    boolean failed = response != null && response.startsWith("Error:");
+                    if (!failed) {
+                        try {
+                            promptSpool.markDone(entry.getSeq());
+                        } catch (IOException e) {
+                            OpenCodeMod.LOGGER.error("Failed to mark queued prompt as sent", e);
+                        }
+                    }
+                    MinecraftClient.getInstance().execute(() -> {
+                        finishWorldContext(attached, !failed);
+                        if (failed) {
+                            // Keep it queued and try again later
+                            nextSpoolAttempt = System.currentTimeMillis() + config.reconnectIntervalMs;
+                            messageRenderer.sendErrorMessage("Queued prompt not sent, will retry: " + response);
+                            pauseController.setStatus(SessionStatus.IDLE);
+                        }
+                        drainingSpool = false;
+                    });
+                });
+    }
+
+    /**
+     * Keeps a spare session ready while the pool is enabled, and deletes
+     * spares once it is switched off
+     */
+    private void tickSessionPool() {
+        if (!config.warmSessionPool) {
+            if (sessionPool.size() > 0) {
+                sessionPool.clear();
+            }
+            return;
+        }
+        if (!isReady()) return;
+
+        sessionPool.expire(TimeUnit.MINUTES.toMillis(config.spareSessionTtlMinutes));
+        sessionPool.fill(config.workingDirectory);
+    }
+
+    /**
+     * Describes the spool for the HUD, or null when nothing is queued
+     */
+    private String spoolStatus() {
+        int queued = getQueuedPromptCount();
+        if (queued == 0) return null;
+
+        String prompts = queued == 1 ? "1 queued prompt" : queued + " queued prompts";
+        if (!isReady()) return prompts + ", waiting for OpenCode server";
+        if (drainingSpool) return prompts + ", sending";
+        PromptSpool.Entry next = promptSpool.peek();
+        if (next != null && next.getSessionId() == null && sessionManager.getCurrentSession() == null) {
+            return prompts + ", waiting for a session (/oc session new)";
+        }
+        return prompts + ", waiting for an idle session";
+    }
+
     /**
      * Cancels the current generation
      */
@@ -267,6 +707,20 @@ public class OpenCodeClient {
         return sessionManager.getStatus();
     }
 
+    /**
+     * Gets the transcript of everything rendered for the current session
+     */
+    public TranscriptBuffer getTranscript() {
+        return messageRenderer.getTranscript();
+    }
+
+    /**
+     * Creates a transcript screen that pages in older history as it is scrolled back
+     */
+    public TranscriptScreen createTranscriptScreen() {
+        return new TranscriptScreen(messageRenderer.getTranscript(), this::loadOlderHistory);
+    }
+
     /**
      * Returns true if connected and initialized
      */
@@ -276,9 +730,15 @@ public class OpenCodeClient {
 
     /**
      * Ticks the session manager for status timeout checks
+     * and flushes buffered output to chat
      */
     public void tick() {
         sessionManager.tick();
+        worldContext.tick();
+        tickSessionPool();
+        drainSpool();
+        messageRenderer.setQueueStatus(spoolStatus());
+        messageRenderer.tick();
     }
 
     /**
@@ -286,6 +746,24 @@ public class OpenCodeClient {
      */
     public void shutdown() {
         scheduler.shutdown();
+        try {
+            // Don't leave an empty spare session behind on the server
+            sessionPool.close().get(SPARE_CLEANUP_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            OpenCodeMod.LOGGER.debug("Timed out deleting spare sessions");
+        } catch (Exception e) {
+            OpenCodeMod.LOGGER.debug("Failed to delete spare sessions: {}", e.getMessage());
+        }
         httpClient.shutdown();
+        worldContext.shutdown();
+        messageRenderer.shutdown();
+        searchIndex.close();
+        if (promptSpool != null) {
+            try {
+                promptSpool.close();
+            } catch (IOException e) {
+                OpenCodeMod.LOGGER.warn("Failed to close prompt spool: {}", e.getMessage());
+            }
+        }
     }
 }
@@ -4,42 +4,64 @@ import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import com.opencode.minecraft.OpenCodeMod;
+import com.opencode.minecraft.client.session.HistoryMessage;
 import com.opencode.minecraft.client.session.SessionInfo;
 import com.opencode.minecraft.config.ModConfig;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
  * HTTP client for communicating with the OpenCode server.
  * Uses Java's built-in HttpClient for REST and SSE.
+ *
+ * The server URL and working directory can be changed at runtime with
+ * {@link #reconfigure}, which drains in-flight requests and stops the
+ * event stream before switching over.
  */
 public class OpenCodeHttpClient {
+    // How long reconfigure waits for in-flight requests before cancelling them
+    private static final long DRAIN_TIMEOUT_SECONDS = 10;
+
     private final HttpClient httpClient;
-    private final String baseUrl;
-    private final String directory;
     private final Gson gson = new Gson();
     private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
 
+    private volatile Endpoint endpoint;
     private volatile boolean connected = false;
     private volatile boolean sseRunning = false;
+    // Bumped whenever the event stream is stopped, so a stale loop can't keep running
+    private volatile int sseGeneration = 0;
+    // The live stream, cancelled by disconnect()
+    private volatile SseLineSubscriber sseSubscriber;
+    private volatile CompletableFuture<?> sseRequest;
     private Consumer<SseEvent> eventHandler;
     private Consumer<String> responseHandler;
 
     public OpenCodeHttpClient(ModConfig config) {
-        this.baseUrl = config.serverUrl;
-        this.directory = config.workingDirectory;
+        this.endpoint = new Endpoint(config);
 
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
@@ -51,13 +73,14 @@ public class OpenCodeHttpClient {
      * Checks if the server is healthy
      */
     public CompletableFuture<Boolean> checkHealth() {
+        Endpoint endpoint = this.endpoint;
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/global/health"))
+                .uri(URI.create(endpoint.baseUrl + "/global/health"))
                 .timeout(Duration.ofSeconds(5))
                 .GET()
                 .build();
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        return send(request, HttpResponse.BodyHandlers.ofString())
                 .thenApply(response -> {
                     connected = response.statusCode() == 200;
                     return connected;
@@ -73,17 +96,25 @@ public class OpenCodeHttpClient {
      * Creates a new session
      */
     public CompletableFuture<SessionInfo> createSession() {
+        return createSession(endpoint.directory);
+    }
+
+    /**
+     * Creates a new session in the given working directory
+     */
+    public CompletableFuture<SessionInfo> createSession(String directory) {
+        Endpoint endpoint = this.endpoint;
         JsonObject body = new JsonObject();
 
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/session"))
+                .uri(URI.create(endpoint.baseUrl + "/session"))
                 .header("Content-Type", "application/json")
                 .header("x-opencode-directory", directory)
                 .timeout(Duration.ofSeconds(10))
                 .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
                 .build();
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        return send(request, HttpResponse.BodyHandlers.ofString())
                 .thenApply(response -> {
                     if (response.statusCode() != 200 && response.statusCode() != 201) {
                         throw new RuntimeException("Failed to create session: " + response.statusCode());
@@ -97,14 +128,15 @@ public class OpenCodeHttpClient {
      * Lists all sessions
      */
     public CompletableFuture<List<SessionInfo>> listSessions() {
+        Endpoint endpoint = this.endpoint;
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/session"))
-                .header("x-opencode-directory", directory)
+                .uri(URI.create(endpoint.baseUrl + "/session"))
+                .header("x-opencode-directory", endpoint.directory)
                 .timeout(Duration.ofSeconds(10))
                 .GET()
                 .build();
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        return send(request, HttpResponse.BodyHandlers.ofString())
                 .thenApply(response -> {
                     if (response.statusCode() != 200) {
                         throw new RuntimeException("Failed to list sessions: " + response.statusCode());
@@ -122,14 +154,15 @@ public class OpenCodeHttpClient {
      * Gets a specific session
      */
     public CompletableFuture<SessionInfo> getSession(String sessionId) {
+        Endpoint endpoint = this.endpoint;
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/session/" + sessionId))
-                .header("x-opencode-directory", directory)
+                .uri(URI.create(endpoint.baseUrl + "/session/" + sessionId))
+                .header("x-opencode-directory", endpoint.directory)
                 .timeout(Duration.ofSeconds(10))
                 .GET()
                 .build();
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        return send(request, HttpResponse.BodyHandlers.ofString())
                 .thenApply(response -> {
                     if (response.statusCode() != 200) {
                         throw new RuntimeException("Failed to get session: " + response.statusCode());
@@ -139,11 +172,57 @@ public class OpenCodeHttpClient {
                 });
     }
 
+    /**
+     * Streams one page of a session's message history.
+     * The response is parsed incrementally and the download abandoned as soon
+     * as the page is complete, see {@link HistoryMessage#readPage}.
+     */
+    public CompletableFuture<List<HistoryMessage>> getMessages(String sessionId, int limit, int keep, String stopAtId) {
+        Endpoint endpoint = this.endpoint;
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(endpoint.baseUrl + "/session/" + sessionId + "/message?limit=" + limit))
+                .header("x-opencode-directory", endpoint.directory)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        return send(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    try (JsonReader reader = new JsonReader(
+                            new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                        if (response.statusCode() != 200) {
+                            throw new RuntimeException("Failed to get messages: " + response.statusCode());
+                        }
+                        return HistoryMessage.readPage(reader, keep, stopAtId);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
     /**
      * Sends a prompt to a session via the /session/{id}/message endpoint.
      * This is the correct API endpoint for sending messages programmatically.
      */
     public CompletableFuture<String> sendPrompt(String sessionId, String text) {
+        return sendPrompt(sessionId, text, null);
+    }
+
+    /**
+     * Sends a prompt with a snapshot of the world around the player attached
+     * as a text file part. worldContext may be null.
+     */
+    public CompletableFuture<String> sendPrompt(String sessionId, String text, String worldContext) {
+        return sendPrompt(sessionId, text, worldContext, null);
+    }
+
+    /**
+     * Sends a prompt under a message ID chosen by the caller, so that a retry
+     * can first check with {@link #hasMessage} whether it already arrived.
+     * worldContext and messageId may be null.
+     */
+    public CompletableFuture<String> sendPrompt(String sessionId, String text, String worldContext, String messageId) {
+        Endpoint endpoint = this.endpoint;
         // Build the message body with parts array structure
         JsonObject textPart = new JsonObject();
         textPart.addProperty("type", "text");
@@ -152,10 +231,23 @@ public class OpenCodeHttpClient {
         JsonArray parts = new JsonArray();
         parts.add(textPart);
 
+        if (worldContext != null) {
+            JsonObject filePart = new JsonObject();
+            filePart.addProperty("type", "file");
+            filePart.addProperty("mime", "text/plain");
+            filePart.addProperty("filename", "world-snapshot.txt");
+            filePart.addProperty("url", "data:text/plain;base64,"
+                    + Base64.getEncoder().encodeToString(worldContext.getBytes(StandardCharsets.UTF_8)));
+            parts.add(filePart);
+        }
+
         JsonObject body = new JsonObject();
+        if (messageId != null) {
+            body.addProperty("messageID", messageId);
+        }
         body.add("parts", parts);
 
-        String url = baseUrl + "/session/" + sessionId + "/message";
+        String url = endpoint.baseUrl + "/session/" + sessionId + "/message";
 
         OpenCodeMod.LOGGER.info("Sending message to session {}: {}", sessionId, text);
 
@@ -166,7 +258,7 @@ public class OpenCodeHttpClient {
                 .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
                 .build();
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        return send(request, HttpResponse.BodyHandlers.ofString())
                 .thenApply(response -> {
                     if (response.statusCode() != 200) {
                         OpenCodeMod.LOGGER.error("Failed to send message: {} - {}", response.statusCode(), response.body());
@@ -182,18 +274,62 @@ public class OpenCodeHttpClient {
                 });
     }
 
+    /**
+     * Returns true if the session has a message with this ID, e.g. a prompt
+     * whose send timed out after the server had already taken it
+     */
+    public CompletableFuture<Boolean> hasMessage(String sessionId, String messageId) {
+        Endpoint endpoint = this.endpoint;
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(endpoint.baseUrl + "/session/" + sessionId + "/message/" + messageId))
+                .header("x-opencode-directory", endpoint.directory)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+
+        return send(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> {
+                    if (response.statusCode() == 404) return false;
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException("Failed to get message: " + response.statusCode());
+                    }
+                    return true;
+                });
+    }
+
+    /**
+     * Deletes a session
+     */
+    public CompletableFuture<Void> deleteSession(String sessionId) {
+        Endpoint endpoint = this.endpoint;
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(endpoint.baseUrl + "/session/" + sessionId))
+                .header("x-opencode-directory", endpoint.directory)
+                .timeout(Duration.ofSeconds(10))
+                .DELETE()
+                .build();
+
+        return send(request, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(response -> {
+                    if (response.statusCode() != 200 && response.statusCode() != 204) {
+                        throw new RuntimeException("Failed to delete session: " + response.statusCode());
+                    }
+                });
+    }
+
     /**
      * Aborts the current session operation
      */
     public CompletableFuture<Void> abortSession(String sessionId) {
+        Endpoint endpoint = this.endpoint;
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/session/" + sessionId + "/abort"))
-                .header("x-opencode-directory", directory)
+                .uri(URI.create(endpoint.baseUrl + "/session/" + sessionId + "/abort"))
+                .header("x-opencode-directory", endpoint.directory)
                 .timeout(Duration.ofSeconds(10))
                 .POST(HttpRequest.BodyPublishers.noBody())
                 .build();
 
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        return send(request, HttpResponse.BodyHandlers.discarding())
                 .thenAccept(response -> {
                     if (response.statusCode() != 200 && response.statusCode() != 204) {
                         OpenCodeMod.LOGGER.warn("Abort returned status: {}", response.statusCode());
@@ -213,25 +349,46 @@ public class OpenCodeHttpClient {
         }
 
         sseRunning = true;
-        executor.submit(this::runSseLoop);
+        int generation = sseGeneration;
+        executor.submit(() -> runSseLoop(generation));
     }
 
-    private void runSseLoop() {
-        while (sseRunning) {
+    /**
+     * Keeps one event stream open, reconnecting when it drops, until
+     * disconnect() moves on to the next generation
+     */
+    private void runSseLoop(int generation) {
+        while (isSseCurrent(generation)) {
             try {
+                Endpoint endpoint = this.endpoint;
                 HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(baseUrl + "/global/event"))
+                        .uri(URI.create(endpoint.baseUrl + "/global/event"))
                         .header("Accept", "text/event-stream")
-                        .header("x-opencode-directory", directory)
+                        .header("x-opencode-directory", endpoint.directory)
                         .GET()
                         .build();
 
-                httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(
-                        new SseLineSubscriber(this::handleSseLine)))
-                        .join();
+                // Lines still buffered from a stream that was stopped are dropped
+                SseLineSubscriber subscriber = new SseLineSubscriber(line -> {
+                    if (isSseCurrent(generation)) {
+                        handleSseLine(line);
+                    }
+                });
+                sseSubscriber = subscriber;
+                CompletableFuture<?> response = httpClient.sendAsync(request,
+                        HttpResponse.BodyHandlers.fromLineSubscriber(subscriber));
+                sseRequest = response;
+
+                // disconnect() may have run before the stream was stored; cancel it ourselves
+                if (!isSseCurrent(generation)) {
+                    subscriber.cancel();
+                    response.cancel(true);
+                    break;
+                }
+                response.join();
 
             } catch (Exception e) {
-                if (sseRunning) {
+                if (isSseCurrent(generation)) {
                     OpenCodeMod.LOGGER.warn("SSE connection error, reconnecting in 5s: {}", e.getMessage());
                     try {
                         Thread.sleep(5000);
@@ -244,6 +401,10 @@ public class OpenCodeHttpClient {
         }
     }
 
+    private boolean isSseCurrent(int generation) {
+        return sseRunning && generation == sseGeneration;
+    }
+
     private void handleSseLine(String line) {
         if (line == null || line.isEmpty()) return;
 
@@ -287,9 +448,58 @@ public class OpenCodeHttpClient {
         return connected;
     }
 
+    /**
+     * Returns true if requests already go to the server and directory in the config
+     */
+    public boolean isConfiguredFor(ModConfig config) {
+        return endpoint.equals(new Endpoint(config));
+    }
+
+    /**
+     * Points the client at the server URL and working directory in the config.
+     * Stops the event stream, waits for in-flight requests to finish (cancelling
+     * any still running after a timeout), then swaps the endpoint. Callers
+     * resubscribe to events once the returned future completes.
+     */
+    public CompletableFuture<Void> reconfigure(ModConfig config) {
+        Endpoint next = new Endpoint(config);
+        disconnect();
+
+        CompletableFuture<?>[] pending = inFlight.toArray(new CompletableFuture<?>[0]);
+        CompletableFuture<?>[] settled = new CompletableFuture<?>[pending.length];
+        for (int i = 0; i < pending.length; i++) {
+            settled[i] = pending[i].handle((result, error) -> null);
+        }
+
+        OpenCodeMod.LOGGER.info("Reconfiguring OpenCode client, draining {} request(s)", pending.length);
+        return CompletableFuture.allOf(settled)
+                .completeOnTimeout(null, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .thenRun(() -> {
+                    for (CompletableFuture<?> request : pending) {
+                        if (!request.isDone()) {
+                            request.cancel(true);
+                        }
+                    }
+                    endpoint = next;
+                    OpenCodeMod.LOGGER.info("OpenCode client now using {} in {}", next.baseUrl, next.directory);
+                });
+    }
+
     public void disconnect() {
         sseRunning = false;
+        sseGeneration++;
         connected = false;
+
+        SseLineSubscriber subscriber = sseSubscriber;
+        if (subscriber != null) {
+            subscriber.cancel();
+            sseSubscriber = null;
+        }
+        CompletableFuture<?> request = sseRequest;
+        if (request != null) {
+            request.cancel(true);
+            sseRequest = null;
+        }
     }
 
     public void shutdown() {
@@ -297,12 +507,46 @@ public class OpenCodeHttpClient {
         executor.shutdown();
     }
 
+    /**
+     * Sends a request, tracking it until it completes so it can be drained
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        CompletableFuture<HttpResponse<T>> future = httpClient.sendAsync(request, handler);
+        inFlight.add(future);
+        future.whenComplete((response, error) -> inFlight.remove(future));
+        return future;
+    }
+
+    /**
+     * Server URL and working directory requests are sent with
+     */
+    private static final class Endpoint {
+        final String baseUrl;
+        final String directory;
+
+        Endpoint(ModConfig config) {
+            this.baseUrl = config.serverUrl;
+            this.directory = config.workingDirectory;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Endpoint other)) return false;
+            return Objects.equals(baseUrl, other.baseUrl) && Objects.equals(directory, other.directory);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(baseUrl, directory);
+        }
+    }
+
     /**
      * Simple line subscriber for SSE
      */
     private static class SseLineSubscriber implements Flow.Subscriber<String> {
         private final Consumer<String> lineHandler;
-        private Flow.Subscription subscription;
+        private volatile Flow.Subscription subscription;
 
         SseLineSubscriber(Consumer<String> lineHandler) {
             this.lineHandler = lineHandler;
@@ -314,6 +558,13 @@ public class OpenCodeHttpClient {
             subscription.request(Long.MAX_VALUE);
         }
 
+        void cancel() {
+            Flow.Subscription subscription = this.subscription;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
         @Override
         public void onNext(String item) {
             lineHandler.accept(item);
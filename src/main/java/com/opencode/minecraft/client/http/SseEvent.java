@@ -73,6 +73,34 @@ public class SseEvent {
         return part.get("type").getAsString();
     }
 
+    /**
+     * Gets the part ID from message.part.updated events
+     */
+    public String getPartId() {
+        JsonObject part = getPart();
+        if (part == null || !part.has("id")) return null;
+        return part.get("id").getAsString();
+    }
+
+    /**
+     * Gets the ID of the message the part belongs to
+     */
+    public String getMessageId() {
+        JsonObject part = getPart();
+        if (part == null || !part.has("messageID")) return null;
+        return part.get("messageID").getAsString();
+    }
+
+    /**
+     * Returns true once the part has finished streaming (time.end is set)
+     */
+    public boolean isPartCompleted() {
+        JsonObject part = getPart();
+        if (part == null || !part.has("time")) return false;
+        JsonObject time = part.getAsJsonObject("time");
+        return time.has("end") && !time.get("end").isJsonNull();
+    }
+
     /**
      * Gets the tool name if this is a tool part
      */
@@ -95,6 +123,43 @@ public class SseEvent {
         return null;
     }
 
+    /**
+     * Gets the call ID that ties together all updates of one tool invocation
+     */
+    public String getCallId() {
+        JsonObject part = getPart();
+        if (part == null) return null;
+        if (part.has("callID")) {
+            return part.get("callID").getAsString();
+        }
+        // Fall back to the part ID, which is also stable across updates
+        return getPartId();
+    }
+
+    /**
+     * Gets the tool start time in ms from state.time.start, or 0 if unknown
+     */
+    public long getToolStartTime() {
+        return getToolTime("start");
+    }
+
+    /**
+     * Gets the tool end time in ms from state.time.end, or 0 if unknown
+     */
+    public long getToolEndTime() {
+        return getToolTime("end");
+    }
+
+    private long getToolTime(String key) {
+        JsonObject part = getPart();
+        if (part == null || !part.has("state")) return 0;
+        JsonObject state = part.getAsJsonObject("state");
+        if (!state.has("time")) return 0;
+        JsonObject time = state.getAsJsonObject("time");
+        if (!time.has(key) || time.get(key).isJsonNull()) return 0;
+        return time.get(key).getAsLong();
+    }
+
     /**
      * Gets file path from file parts
      */
@@ -0,0 +1,199 @@
+package com.opencode.minecraft.client.session;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A message from a session's history, reduced to what the transcript shows.
+ *
+ * Parsed with a streaming reader so large tool inputs and outputs are
+ * skipped without ever being materialized.
+ */
+public class HistoryMessage {
+    private final String id;
+    private final String role;
+    private final List<Part> parts;
+
+    public HistoryMessage(String id, String role, List<Part> parts) {
+        this.id = id;
+        this.role = role;
+        this.parts = parts;
+    }
+
+    /**
+     * Reads one page of messages from a /session/{id}/message response.
+     *
+     * Messages arrive oldest first. Reading stops as soon as the message with
+     * stopAtId is reached (the oldest one already loaded), so newer history is
+     * never downloaded again; of the messages before it only the last
+     * {@code keep} are retained. If stopAtId is given but never seen, the
+     * history changed underneath us and an empty page is returned.
+     */
+    public static List<HistoryMessage> readPage(JsonReader reader, int keep, String stopAtId) throws IOException {
+        Deque<HistoryMessage> page = new ArrayDeque<>(keep);
+        boolean stopped = false;
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            HistoryMessage message = read(reader);
+            if (stopAtId != null && stopAtId.equals(message.getId())) {
+                stopped = true;
+                break;
+            }
+            if (page.size() == keep) {
+                page.removeFirst();
+            }
+            page.addLast(message);
+        }
+
+        if (stopAtId != null && !stopped) {
+            return List.of();
+        }
+        return new ArrayList<>(page);
+    }
+
+    /**
+     * Reads a single { info, parts } message object
+     */
+    public static HistoryMessage read(JsonReader reader) throws IOException {
+        String id = null;
+        String role = null;
+        List<Part> parts = new ArrayList<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "info" -> {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "id" -> id = reader.nextString();
+                            case "role" -> role = reader.nextString();
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                case "parts" -> {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        Part part = readPart(reader);
+                        if (part != null) {
+                            parts.add(part);
+                        }
+                    }
+                    reader.endArray();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new HistoryMessage(id, role, parts);
+    }
+
+    /**
+     * Reads a part, returning null for kinds the transcript doesn't show
+     */
+    private static Part readPart(JsonReader reader) throws IOException {
+        String type = null;
+        String text = null;
+        String tool = null;
+        String status = null;
+        boolean synthetic = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type" -> type = reader.nextString();
+                case "text" -> text = nextStringOrNull(reader);
+                case "tool" -> tool = nextStringOrNull(reader);
+                case "synthetic" -> synthetic = reader.peek() == JsonToken.BOOLEAN && reader.nextBoolean();
+                case "state" -> {
+                    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if ("status".equals(reader.nextName())) {
+                            status = nextStringOrNull(reader);
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if ("text".equals(type) && text != null && !synthetic) {
+            return new Part(type, text, null, null);
+        }
+        if ("tool".equals(type) && tool != null) {
+            return new Part(type, null, tool, status != null ? status : "unknown");
+        }
+        return null;
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.STRING) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    /**
+     * A text or tool part of a message
+     */
+    public static class Part {
+        private final String type;
+        private final String text;
+        private final String toolName;
+        private final String toolState;
+
+        public Part(String type, String text, String toolName, String toolState) {
+            this.type = type;
+            this.text = text;
+            this.toolName = toolName;
+            this.toolState = toolState;
+        }
+
+        public boolean isText() {
+            return "text".equals(type);
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public String getToolName() {
+            return toolName;
+        }
+
+        public String getToolState() {
+            return toolState;
+        }
+    }
+}
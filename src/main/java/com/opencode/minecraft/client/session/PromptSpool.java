@@ -0,0 +1,321 @@
+package com.opencode.minecraft.client.session;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Durable queue of prompts typed while the server was unreachable.
+ *
+ * Backed by an append-only file. Each record ends with a CRC and a commit
+ * marker and is forced to disk before the call returns, so a queued prompt
+ * survives a crash, and a record torn by one is detected and dropped on the
+ * next open. Delivered prompts are marked done with a record of their own;
+ * once nothing is pending the file is truncated back to empty.
+ *
+ * Disk writes hold their own lock, so {@link #size} and {@link #peek} never
+ * wait on a sync; {@link #enqueueAsync} moves the write off the caller's
+ * thread altogether.
+ *
+ * Each prompt is given a message ID when it is queued, sent along with it,
+ * so a retry after a send whose outcome was lost can check whether the
+ * server already has the message instead of sending it twice.
+ *
+ * Record: [byte type][long seq][int length][payload][int crc][byte commit]
+ * Prompt payload: [int sessionIdLength][sessionId UTF-8][int messageIdLength][messageId UTF-8][text UTF-8]
+ * Legacy prompt payload, without a message ID: [int sessionIdLength][sessionId UTF-8][text UTF-8]
+ */
+public class PromptSpool {
+    private static final byte LEGACY_PROMPT = 'P';
+    private static final byte PROMPT = 'M';
+    private static final byte DONE = 'D';
+    private static final byte COMMIT = 0x5A;
+    private static final int HEADER = 1 + Long.BYTES + Integer.BYTES;
+    private static final int TRAILER = Integer.BYTES + 1;
+
+    // Prompts are short; anything bigger is a corrupt length field
+    private static final int MAX_PAYLOAD = 1024 * 1024;
+
+    private static final String BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    private final FileChannel channel;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "OpenCode Prompt Spool");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Held for the whole of each change to the file; the pending list is guarded by this
+    private final Object io = new Object();
+    private final Deque<Entry> pending = new ArrayDeque<>();
+    // Prompts handed to enqueueAsync and not yet written
+    private int writing = 0;
+    private long nextSeq = 1;
+
+    private PromptSpool(FileChannel channel) throws IOException {
+        this.channel = channel;
+        recover();
+    }
+
+    /**
+     * Opens (or creates) the spool, restoring prompts not yet delivered
+     */
+    public static PromptSpool open(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new PromptSpool(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Durably queues a prompt. sessionId may be null if there was no session yet.
+     * Returns the number of prompts pending, including this one.
+     */
+    public int enqueue(String sessionId, String text) throws IOException {
+        byte[] session = sessionId != null ? sessionId.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+
+        synchronized (io) {
+            long seq = nextSeq++;
+            String messageId = messageId(seq, System.currentTimeMillis());
+            byte[] message = messageId.getBytes(StandardCharsets.UTF_8);
+
+            ByteBuffer payload = ByteBuffer.allocate(2 * Integer.BYTES + session.length + message.length + body.length);
+            payload.putInt(session.length).put(session).putInt(message.length).put(message).put(body);
+            write(PROMPT, seq, payload.array());
+            synchronized (this) {
+                pending.addLast(new Entry(seq, sessionId, messageId, text));
+                return pending.size();
+            }
+        }
+    }
+
+    /**
+     * Builds a message ID in the server's own ascending format, so queued
+     * prompts sort after earlier messages: "msg_", 12 hex digits of the time
+     * with the sequence number in the low bits, then 14 random characters
+     * since sequence numbers start over once the spool empties
+     */
+    static String messageId(long seq, long timeMs) {
+        long ascending = (timeMs * 0x1000 + (seq & 0xFFF)) & 0xFFFFFFFFFFFFL;
+        StringBuilder id = new StringBuilder("msg_").append(String.format("%012x", ascending));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 14; i++) {
+            id.append(BASE62.charAt(random.nextInt(BASE62.length())));
+        }
+        return id.toString();
+    }
+
+    /**
+     * Queues a prompt on the spool's own thread, so the caller never waits on
+     * the disk. Counted by {@link #size} from the moment this returns, which
+     * keeps prompts typed right after it in order. Completes with the number
+     * of prompts pending.
+     */
+    public CompletableFuture<Integer> enqueueAsync(String sessionId, String text) {
+        synchronized (this) {
+            writing++;
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return enqueue(sessionId, text);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                synchronized (this) {
+                    writing--;
+                }
+            }
+        }, writer);
+    }
+
+    /**
+     * Gets the oldest prompt not yet delivered, or null if none
+     */
+    public synchronized Entry peek() {
+        return pending.peekFirst();
+    }
+
+    /**
+     * Durably marks a prompt as delivered
+     */
+    public void markDone(long seq) throws IOException {
+        synchronized (io) {
+            boolean empty;
+            synchronized (this) {
+                if (!pending.removeIf(entry -> entry.getSeq() == seq)) return;
+                empty = pending.isEmpty();
+            }
+
+            if (empty) {
+                // Nothing left to replay: start over with an empty file
+                channel.truncate(0);
+                channel.force(false);
+            } else {
+                write(DONE, seq, new byte[0]);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of prompts waiting to be delivered, including any still being written
+     */
+    public synchronized int size() {
+        return pending.size() + writing;
+    }
+
+    /**
+     * Finishes any queued writes, then closes the file
+     */
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (io) {
+            channel.close();
+        }
+    }
+
+    private void write(byte type, long seq, byte[] payload) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER + payload.length + TRAILER);
+        record.put(type).putLong(seq).putInt(payload.length).put(payload);
+        record.putInt(crc(record.array(), HEADER + payload.length));
+        record.put(COMMIT);
+        record.flip();
+
+        long position = channel.size();
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Replays committed records and truncates anything after the last one
+     */
+    private void recover() throws IOException {
+        long size = channel.size();
+        ByteBuffer data = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE));
+        while (data.hasRemaining() && channel.read(data, data.position()) >= 0) {
+            // Read the whole file; spools are small
+        }
+        data.flip();
+
+        int committedEnd = 0;
+        while (data.remaining() >= HEADER + TRAILER) {
+            int start = data.position();
+            byte type = data.get();
+            long seq = data.getLong();
+            int length = data.getInt();
+            if (length < 0 || length > MAX_PAYLOAD || data.remaining() < length + TRAILER) break;
+
+            byte[] payload = new byte[length];
+            data.get(payload);
+            int storedCrc = data.getInt();
+            byte commit = data.get();
+            if (commit != COMMIT || storedCrc != crc(data.array(), start, HEADER + length)) break;
+
+            if (type == PROMPT || type == LEGACY_PROMPT) {
+                pending.addLast(decode(seq, payload, type == PROMPT));
+            } else if (type == DONE) {
+                pending.removeIf(entry -> entry.getSeq() == seq);
+            } else {
+                break;
+            }
+            nextSeq = Math.max(nextSeq, seq + 1);
+            committedEnd = data.position();
+        }
+
+        if (committedEnd < size) {
+            channel.truncate(committedEnd);
+            channel.force(false);
+        }
+    }
+
+    private static Entry decode(long seq, byte[] payload, boolean hasMessageId) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        int sessionLength = buffer.getInt();
+        String sessionId = sessionLength > 0
+                ? new String(payload, Integer.BYTES, sessionLength, StandardCharsets.UTF_8)
+                : null;
+        int textStart = Integer.BYTES + sessionLength;
+
+        String messageId = null;
+        if (hasMessageId) {
+            int messageLength = buffer.getInt(textStart);
+            messageId = new String(payload, textStart + Integer.BYTES, messageLength, StandardCharsets.UTF_8);
+            textStart += Integer.BYTES + messageLength;
+        }
+        String text = new String(payload, textStart, payload.length - textStart, StandardCharsets.UTF_8);
+        return new Entry(seq, sessionId, messageId, text);
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        return crc(bytes, 0, length);
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A queued prompt
+     */
+    public static class Entry {
+        private final long seq;
+        private final String sessionId;
+        private final String messageId;
+        private final String text;
+
+        public Entry(long seq, String sessionId, String messageId, String text) {
+            this.seq = seq;
+            this.sessionId = sessionId;
+            this.messageId = messageId;
+            this.text = text;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        /**
+         * Gets the session that was active when the prompt was queued, or null
+         */
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        /**
+         * Gets the ID the prompt is sent under, or null for one queued by an older version
+         */
+        public String getMessageId() {
+            return messageId;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.opencode.minecraft.client.session;
+
+import com.opencode.minecraft.OpenCodeMod;
+import com.opencode.minecraft.client.http.OpenCodeHttpClient;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pages through a session's message history, newest first.
+ *
+ * The first page is requested as soon as the history is created, so it is
+ * usually ready by the time the session switch completes. Older pages are
+ * only fetched when asked for, one at a time.
+ */
+public class SessionHistory {
+    private final OpenCodeHttpClient httpClient;
+    private final String sessionId;
+    private final int pageSize;
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private final CompletableFuture<List<HistoryMessage>> firstPage;
+
+    // Oldest message loaded so far; the next page ends just before it
+    private volatile String oldestId;
+    private volatile int loaded = 0;
+    private volatile boolean exhausted = false;
+
+    public SessionHistory(OpenCodeHttpClient httpClient, String sessionId, int pageSize) {
+        this.httpClient = httpClient;
+        this.sessionId = sessionId;
+        this.pageSize = Math.max(1, pageSize);
+        this.firstPage = loadNextPage();
+    }
+
+    /**
+     * Gets the newest page, requested when this history was created
+     */
+    public CompletableFuture<List<HistoryMessage>> getFirstPage() {
+        return firstPage;
+    }
+
+    /**
+     * Fetches the page of messages just older than those already loaded, in
+     * chronological order. Completes with an empty list if a page is already
+     * loading or the start of the session was reached.
+     */
+    public CompletableFuture<List<HistoryMessage>> loadNextPage() {
+        if (exhausted || !loading.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        // The server returns the newest `limit` messages; the page is the oldest of those
+        return httpClient.getMessages(sessionId, loaded + pageSize, pageSize, oldestId)
+                .thenApply(messages -> {
+                    if (!messages.isEmpty()) {
+                        oldestId = messages.get(0).getId();
+                        loaded += messages.size();
+                    }
+                    if (messages.size() < pageSize) {
+                        exhausted = true;
+                    }
+                    OpenCodeMod.LOGGER.debug("Loaded {} history messages for {}", messages.size(), sessionId);
+                    return messages;
+                })
+                .whenComplete((messages, error) -> loading.set(false));
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Returns true once the oldest message of the session has been loaded
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+}
@@ -4,6 +4,7 @@ import com.opencode.minecraft.OpenCodeMod;
 import com.opencode.minecraft.client.http.OpenCodeHttpClient;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
@@ -13,22 +14,40 @@ import java.util.function.Consumer;
  */
 public class SessionManager {
     private final OpenCodeHttpClient httpClient;
+    private final int historyPageSize;
     private final List<Consumer<SessionStatus>> statusListeners = new CopyOnWriteArrayList<>();
 
     private SessionInfo currentSession;
+    private volatile SessionHistory history;
+    // Most recently requested session; older switches finishing later are dropped
+    private volatile String requestedSessionId;
     private SessionStatus status = SessionStatus.DISCONNECTED;
 
-    public SessionManager(OpenCodeHttpClient httpClient) {
+    public SessionManager(OpenCodeHttpClient httpClient, int historyPageSize) {
         this.httpClient = httpClient;
+        this.historyPageSize = historyPageSize;
     }
 
     /**
      * Creates a new session
      */
     public CompletableFuture<SessionInfo> createSession() {
-        return httpClient.createSession()
+        return createSession(null);
+    }
+
+    /**
+     * Starts a new session, using the pre-created spare if one is given
+     * instead of waiting for the server to create one
+     */
+    public CompletableFuture<SessionInfo> createSession(SessionInfo spare) {
+        requestedSessionId = null;
+        CompletableFuture<SessionInfo> created = spare != null
+                ? CompletableFuture.completedFuture(spare)
+                : httpClient.createSession();
+        return created
                 .thenApply(session -> {
                     this.currentSession = session;
+                    this.history = null;
                     setStatus(SessionStatus.IDLE);
                     OpenCodeMod.LOGGER.info("Created session: {}", session.getId());
                     return session;
@@ -43,12 +62,21 @@ public class SessionManager {
     }
 
     /**
-     * Switches to an existing session
+     * Switches to an existing session.
+     * Its newest history page is fetched alongside the metadata; see {@link #getHistory()}.
+     * If another switch is requested before this one completes, this one fails
+     * with a CancellationException instead of overriding it.
      */
     public CompletableFuture<SessionInfo> useSession(String sessionId) {
+        requestedSessionId = sessionId;
+        SessionHistory sessionHistory = new SessionHistory(httpClient, sessionId, historyPageSize);
         return httpClient.getSession(sessionId)
                 .thenApply(session -> {
+                    if (!sessionId.equals(requestedSessionId)) {
+                        throw new CancellationException("Switch to " + sessionId + " was superseded");
+                    }
                     this.currentSession = session;
+                    this.history = sessionHistory;
                     setStatus(SessionStatus.IDLE);
                     OpenCodeMod.LOGGER.info("Switched to session: {}", session.getId());
                     return session;
@@ -65,11 +93,39 @@ public class SessionManager {
                     new IllegalStateException("No active session"));
         }
 
+        return sendPrompt(currentSession.getId(), text);
+    }
+
+    /**
+     * Sends a prompt to the given session, e.g. one queued before a session switch
+     */
+    public CompletableFuture<String> sendPrompt(String sessionId, String text) {
+        return sendPrompt(sessionId, text, null);
+    }
+
+    /**
+     * Sends a prompt to the given session with an optional world snapshot attached
+     */
+    public CompletableFuture<String> sendPrompt(String sessionId, String text, String worldContext) {
+        return sendPrompt(sessionId, text, worldContext, null);
+    }
+
+    /**
+     * Sends a prompt under a given message ID, e.g. one queued in the spool
+     */
+    public CompletableFuture<String> sendPrompt(String sessionId, String text, String worldContext, String messageId) {
         setStatus(SessionStatus.BUSY);
-        return httpClient.sendPrompt(currentSession.getId(), text);
+        return httpClient.sendPrompt(sessionId, text, worldContext, messageId);
         // Don't set IDLE here - let SSE session.status events drive state
     }
 
+    /**
+     * Returns true if the session already has a message with this ID
+     */
+    public CompletableFuture<Boolean> hasMessage(String sessionId, String messageId) {
+        return httpClient.hasMessage(sessionId, messageId);
+    }
+
     /**
      * Cancels the current generation
      */
@@ -135,6 +191,13 @@ public class SessionManager {
         return currentSession;
     }
 
+    /**
+     * Gets the message history of the current session, or null for a new session
+     */
+    public SessionHistory getHistory() {
+        return history;
+    }
+
     public SessionStatus getStatus() {
         return status;
     }
@@ -0,0 +1,162 @@
+package com.opencode.minecraft.client.session;
+
+import com.opencode.minecraft.OpenCodeMod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps one pre-created, unused session per working directory, so a new
+ * session can be handed out without a round trip to the server.
+ *
+ * A spare is replaced in the background as soon as it is taken. Spares that
+ * sit unused for longer than the TTL are deleted on the server, so an idle
+ * game doesn't leave a trail of empty sessions behind.
+ */
+public class SessionPool {
+    // Wait this long after a failed creation before trying again
+    static final long RETRY_MS = 30_000;
+
+    private final Function<String, CompletableFuture<SessionInfo>> creator;
+    private final Function<String, CompletableFuture<Void>> deleter;
+    private final LongSupplier clock;
+    private final Map<String, Spare> spares = new ConcurrentHashMap<>();
+    private final Set<String> filling = ConcurrentHashMap.newKeySet();
+
+    // Bumped by clear(), so spares still being created for an old server are not kept
+    private volatile int generation = 0;
+    private volatile long nextAttempt = 0;
+    private volatile boolean closed = false;
+
+    /**
+     * @param creator creates a session in the given directory
+     * @param deleter deletes the session with the given ID
+     * @param clock   current time in milliseconds
+     */
+    public SessionPool(Function<String, CompletableFuture<SessionInfo>> creator,
+                       Function<String, CompletableFuture<Void>> deleter,
+                       LongSupplier clock) {
+        this.creator = creator;
+        this.deleter = deleter;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates a spare for the directory in the background, unless one is
+     * already there or on its way. Cheap enough to call every tick.
+     */
+    public void fill(String directory) {
+        if (closed || spares.containsKey(directory)) return;
+        if (clock.getAsLong() < nextAttempt || !filling.add(directory)) return;
+
+        int started = generation;
+        creator.apply(directory).whenComplete((session, error) -> {
+            // Cleared meanwhile: the filling entry, if any, belongs to a newer fill
+            boolean stale = started != generation;
+            if (error != null) {
+                if (!stale) {
+                    nextAttempt = clock.getAsLong() + RETRY_MS;
+                }
+                OpenCodeMod.LOGGER.debug("Could not create spare session: {}", error.getMessage());
+            } else if (stale || closed || spares.putIfAbsent(directory, new Spare(session, clock.getAsLong())) != null) {
+                delete(session.getId());
+            } else {
+                OpenCodeMod.LOGGER.debug("Spare session {} ready for {}", session.getId(), directory);
+            }
+            if (!stale) {
+                filling.remove(directory);
+            }
+        });
+    }
+
+    /**
+     * Takes the spare for the directory, or returns null if there is none yet.
+     * A replacement is requested straight away.
+     */
+    public SessionInfo take(String directory) {
+        Spare spare = spares.remove(directory);
+        fill(directory);
+        return spare != null ? spare.session : null;
+    }
+
+    /**
+     * Deletes spares that have gone unused for longer than ttlMs. They are
+     * not replaced here; the next {@link #fill} does that for the current directory.
+     */
+    public void expire(long ttlMs) {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, Spare> entry : spares.entrySet()) {
+            Spare spare = entry.getValue();
+            if (now - spare.createdAt >= ttlMs && spares.remove(entry.getKey(), spare)) {
+                OpenCodeMod.LOGGER.debug("Spare session {} expired", spare.session.getId());
+                delete(spare.session.getId());
+            }
+        }
+    }
+
+    /**
+     * Returns true if the session is an unused spare, which listings should hide
+     */
+    public boolean isSpare(String sessionId) {
+        for (Spare spare : spares.values()) {
+            if (spare.session.getId().equals(sessionId)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of spares ready to be taken
+     */
+    public int size() {
+        return spares.size();
+    }
+
+    /**
+     * Deletes all spares, e.g. when the pool is switched off or the server
+     * changes. Spares still being created are deleted once they arrive.
+     */
+    public CompletableFuture<Void> clear() {
+        generation++;
+        filling.clear();
+        nextAttempt = 0;
+        List<CompletableFuture<Void>> deletions = new ArrayList<>();
+        for (String directory : spares.keySet()) {
+            Spare spare = spares.remove(directory);
+            if (spare != null) {
+                deletions.add(delete(spare.session.getId()));
+            }
+        }
+        return CompletableFuture.allOf(deletions.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Deletes all spares and stops creating new ones
+     */
+    public CompletableFuture<Void> close() {
+        closed = true;
+        return clear();
+    }
+
+    private CompletableFuture<Void> delete(String sessionId) {
+        return deleter.apply(sessionId).exceptionally(e -> {
+            OpenCodeMod.LOGGER.debug("Could not delete spare session {}: {}", sessionId, e.getMessage());
+            return null;
+        });
+    }
+
+    private static final class Spare {
+        final SessionInfo session;
+        final long createdAt;
+
+        Spare(SessionInfo session, long createdAt) {
+            this.session = session;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.opencode.minecraft.client.session;
+
+import com.opencode.minecraft.OpenCodeMod;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local full-text index over session titles and transcript text.
+ *
+ * An in-memory inverted index (term to per-session counts) is kept sorted
+ * so the last query word also matches as a prefix. Results are ranked with
+ * BM25, with title matches weighted above transcript matches.
+ *
+ * Updates are queued to a background thread, which applies them in memory
+ * and appends them to a log on disk, so callers never wait on the index.
+ * The log is replayed on load, and rewritten in compact form (one title
+ * and one term-count record per session) by the background thread whenever
+ * it has grown to over twice that size, at load or as updates are appended,
+ * so the cost of rewriting is spread over the appends in between.
+ *
+ * Log records, one per line, tab separated:
+ * T id updatedAt title - session title
+ * L id text            - transcript text
+ * C id term:count...   - compacted transcript term counts
+ */
+public class SessionSearchIndex {
+    private static final int TITLE_WEIGHT = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 40;
+
+    // Rewrite the log once it has this many records more than twice a compact one's
+    static final int COMPACT_SLACK = 1000;
+
+    private final Path file;
+    private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    private final Map<String, Document> documents = new HashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "OpenCode Search Index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long totalLength = 0;
+    private int logRecords = 0;
+    // Size of the log after the last rewrite, owned by the writer thread
+    private int compactedRecords = 0;
+    private volatile boolean loaded = false;
+
+    // Open log, owned by the writer thread
+    private BufferedWriter out;
+
+    public SessionSearchIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Replays the log from disk on the background thread, ahead of any updates
+     */
+    public void loadAsync() {
+        writer.execute(this::load);
+    }
+
+    /**
+     * Replays the log from disk on the calling thread
+     */
+    public synchronized void load() {
+        loadLog();
+        loaded = true;
+    }
+
+    private void loadLog() {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String record;
+            while ((record = reader.readLine()) != null) {
+                apply(record);
+                logRecords++;
+            }
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            OpenCodeMod.LOGGER.warn("Failed to load search index: {}", e.getMessage());
+            return;
+        }
+
+        OpenCodeMod.LOGGER.info("Loaded search index: {} sessions, {} terms", documents.size(), postings.size());
+        if (needsCompaction()) {
+            compact();
+        }
+    }
+
+    private boolean needsCompaction() {
+        long compactSize = Math.max(compactedRecords, documents.size() * 2L);
+        return logRecords > compactSize * 2 + COMPACT_SLACK;
+    }
+
+    /**
+     * Records a session's title. Older titles never replace newer ones.
+     */
+    public void updateSession(String sessionId, String title, long updatedAt) {
+        String record = "T\t" + sessionId + "\t" + updatedAt + "\t" + clean(title);
+        submit(record);
+    }
+
+    /**
+     * Adds a line of rendered transcript text to a session
+     */
+    public void addText(String sessionId, String text) {
+        submit("L\t" + sessionId + "\t" + clean(text));
+    }
+
+    /**
+     * Returns true once the log has been replayed and searches see everything
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Searches titles and transcripts. The last query word also matches as a
+     * prefix, so results update while typing.
+     */
+    public synchronized List<Result> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || documents.isEmpty()) return List.of();
+
+        double averageLength = Math.max(1.0, (double) totalLength / documents.size());
+        Map<String, Double> scores = new HashMap<>();
+
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            boolean prefix = i == terms.size() - 1;
+            Map<String, Map<String, Integer>> matches = prefix
+                    ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                    : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+
+            for (Map<String, Integer> counts : matches.values()) {
+                double idf = Math.log(1 + (documents.size() - counts.size() + 0.5) / (counts.size() + 0.5));
+                for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                    Document doc = documents.get(entry.getKey());
+                    double tf = entry.getValue();
+                    double norm = tf + K1 * (1 - B + B * doc.length / averageLength);
+                    scores.merge(entry.getKey(), idf * tf * (K1 + 1) / norm, Double::sum);
+                }
+            }
+        }
+
+        List<Result> results = new ArrayList<>(scores.size());
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            Document doc = documents.get(entry.getKey());
+            results.add(new Result(entry.getKey(), doc.title, doc.updatedAt, entry.getValue()));
+        }
+        results.sort((a, b) -> a.score != b.score
+                ? Double.compare(b.score, a.score)
+                : Long.compare(b.updatedAt, a.updatedAt));
+        return results.size() > limit ? results.subList(0, limit) : results;
+    }
+
+    /**
+     * Gets the number of indexed sessions
+     */
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * Applies and writes out queued updates, then stops the background thread
+     */
+    public void close() {
+        writer.execute(this::closeLog);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Applies a log record to the in-memory index.
+     * Returns false if it was ignored (e.g. an out-of-date title).
+     */
+    private boolean apply(String record) {
+        String[] fields = record.split("\t", 4);
+        if (fields.length < 3) return false;
+        String sessionId = fields[1];
+        if (fields[0].equals("L") && tokenize(fields[2]).isEmpty()) return false;
+        Document doc = documents.computeIfAbsent(sessionId, id -> new Document());
+
+        switch (fields[0]) {
+            case "T" -> {
+                if (fields.length < 4) return false;
+                long updatedAt;
+                try {
+                    updatedAt = Long.parseLong(fields[2]);
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                if (doc.title != null && (updatedAt < doc.updatedAt || fields[3].equals(doc.title))) return false;
+
+                if (doc.title != null) {
+                    for (String term : tokenize(doc.title)) {
+                        addPosting(term, sessionId, doc, -TITLE_WEIGHT);
+                    }
+                }
+                doc.title = fields[3];
+                doc.updatedAt = updatedAt;
+                for (String term : tokenize(doc.title)) {
+                    addPosting(term, sessionId, doc, TITLE_WEIGHT);
+                }
+            }
+            case "L" -> {
+                for (String term : tokenize(record.substring(fields[0].length() + sessionId.length() + 2))) {
+                    addPosting(term, sessionId, doc, 1);
+                }
+            }
+            case "C" -> {
+                for (String pair : record.substring(fields[0].length() + sessionId.length() + 2).split(" ")) {
+                    int colon = pair.lastIndexOf(':');
+                    if (colon <= 0) continue;
+                    try {
+                        addPosting(pair.substring(0, colon), sessionId, doc, Integer.parseInt(pair.substring(colon + 1)));
+                    } catch (NumberFormatException e) {
+                        // Skip damaged entry
+                    }
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addPosting(String term, String sessionId, Document doc, int count) {
+        Map<String, Integer> counts = postings.computeIfAbsent(term, t -> new HashMap<>());
+        int updated = counts.getOrDefault(sessionId, 0) + count;
+        if (updated > 0) {
+            counts.put(sessionId, updated);
+        } else {
+            counts.remove(sessionId);
+            if (counts.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        doc.length += count;
+        totalLength += count;
+    }
+
+    private void submit(String record) {
+        if (writer.isShutdown()) return;
+        writer.execute(() -> {
+            boolean applied;
+            synchronized (this) {
+                applied = apply(record);
+            }
+            if (applied) {
+                append(record);
+                if (needsCompaction()) {
+                    compact();
+                }
+            }
+        });
+    }
+
+    /**
+     * Appends a record to the log. Runs on the writer thread.
+     */
+    private void append(String record) {
+        logRecords++;
+        try {
+            if (out == null) {
+                Files.createDirectories(file.getParent());
+                out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            out.write(record);
+            out.newLine();
+            out.flush();
+        } catch (IOException e) {
+            OpenCodeMod.LOGGER.warn("Failed to update search index: {}", e.getMessage());
+            closeLog();
+        }
+    }
+
+    private void closeLog() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            OpenCodeMod.LOGGER.debug("Failed to close search index: {}", e.getMessage());
+        }
+        out = null;
+    }
+
+    /**
+     * Rewrites the log with one title and one term-count record per session.
+     * Runs on the writer thread, so no update is appended meanwhile.
+     */
+    private void compact() {
+        List<String> records = new ArrayList<>();
+        synchronized (this) {
+            // Title terms per session, counted once rather than per posting
+            Map<String, Map<String, Integer>> titleCounts = new HashMap<>();
+            for (Map.Entry<String, Document> entry : documents.entrySet()) {
+                if (entry.getValue().title == null) continue;
+                Map<String, Integer> counts = new HashMap<>();
+                for (String term : tokenize(entry.getValue().title)) {
+                    counts.merge(term, TITLE_WEIGHT, Integer::sum);
+                }
+                titleCounts.put(entry.getKey(), counts);
+            }
+
+            // Transcript counts per session, excluding the weighted title terms
+            Map<String, StringBuilder> counts = new HashMap<>();
+            for (Map.Entry<String, Map<String, Integer>> posting : postings.entrySet()) {
+                for (Map.Entry<String, Integer> entry : posting.getValue().entrySet()) {
+                    Map<String, Integer> title = titleCounts.get(entry.getKey());
+                    int count = entry.getValue() - (title != null ? title.getOrDefault(posting.getKey(), 0) : 0);
+                    if (count > 0) {
+                        counts.computeIfAbsent(entry.getKey(), id -> new StringBuilder())
+                                .append(posting.getKey()).append(':').append(count).append(' ');
+                    }
+                }
+            }
+
+            for (Map.Entry<String, Document> entry : documents.entrySet()) {
+                Document doc = entry.getValue();
+                if (doc.title != null) {
+                    records.add("T\t" + entry.getKey() + "\t" + doc.updatedAt + "\t" + doc.title);
+                }
+                StringBuilder terms = counts.get(entry.getKey());
+                if (terms != null) {
+                    records.add("C\t" + entry.getKey() + "\t" + terms.toString().trim());
+                }
+            }
+        }
+        logRecords = records.size();
+        compactedRecords = records.size();
+
+        closeLog();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.write(temp, records, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            OpenCodeMod.LOGGER.debug("Compacted search index to {} records", records.size());
+        } catch (IOException e) {
+            OpenCodeMod.LOGGER.warn("Failed to compact search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Splits text into lowercase words, dropping very short and very long ones
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                int length = i - start;
+                if (length >= MIN_TERM_LENGTH && length <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static String clean(String text) {
+        return text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static final class Document {
+        String title;
+        long updatedAt;
+        int length;
+    }
+
+    /**
+     * A matching session
+     */
+    public static class Result {
+        private final String sessionId;
+        private final String title;
+        private final long updatedAt;
+        private final double score;
+
+        Result(String sessionId, String title, long updatedAt, double score) {
+            this.sessionId = sessionId;
+            this.title = title;
+            this.updatedAt = updatedAt;
+            this.score = score;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public String getTitle() {
+            return title != null ? title : "Untitled";
+        }
+
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.opencode.minecraft.command;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.opencode.minecraft.OpenCodeMod;
 import com.opencode.minecraft.client.OpenCodeClient;
 import com.opencode.minecraft.client.session.SessionInfo;
+import com.opencode.minecraft.client.session.SessionSearchIndex;
 import com.opencode.minecraft.game.MessageRenderer;
+import com.opencode.minecraft.game.WorldContextCapture;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager;
 import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.text.ClickEvent;
+import net.minecraft.text.HoverEvent;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 
@@ -27,12 +32,18 @@ import java.util.List;
  * - /oc session list    - List available sessions
  * - /oc session use <id> - Switch to an existing session
  * - /oc cancel          - Cancel current generation
+ * - /oc log             - Open the full session transcript
+ * - /oc search <query>  - Search session titles and transcripts
+ * - /oc context <radius> - Snapshot nearby blocks for the next prompt
+ * - /oc undo            - Undo the agent's last build
  * - /oc config url <url> - Set server URL
  * - /oc config dir <path> - Set working directory
  * - /oc pause           - Toggle pause controller
  */
 public class OpenCodeCommand {
 
+    private static final int SEARCH_RESULTS = 10;
+
     // Cache of sessions from last list command, indexed by number (1-based)
     private static List<SessionInfo> cachedSessions = new ArrayList<>();
 
@@ -55,6 +66,24 @@ public class OpenCodeCommand {
                 .then(ClientCommandManager.literal("pause")
                     .executes(OpenCodeCommand::executePause))
 
+                // /oc log
+                .then(ClientCommandManager.literal("log")
+                    .executes(OpenCodeCommand::executeLog))
+
+                // /oc search <query>
+                .then(ClientCommandManager.literal("search")
+                    .then(ClientCommandManager.argument("query", StringArgumentType.greedyString())
+                        .executes(OpenCodeCommand::executeSearch)))
+
+                // /oc context <radius>
+                .then(ClientCommandManager.literal("context")
+                    .then(ClientCommandManager.argument("radius", IntegerArgumentType.integer(1, WorldContextCapture.MAX_RADIUS))
+                        .executes(OpenCodeCommand::executeContext)))
+
+                // /oc undo
+                .then(ClientCommandManager.literal("undo")
+                    .executes(OpenCodeCommand::executeUndo))
+
                 // /oc session ...
                 .then(ClientCommandManager.literal("session")
                     // /oc session new
@@ -104,6 +133,14 @@ public class OpenCodeCommand {
                 .append(Text.literal(" - Switch session by number").formatted(Formatting.GRAY)));
         source.sendFeedback(Text.literal("/oc cancel").formatted(Formatting.GREEN)
                 .append(Text.literal(" - Cancel generation").formatted(Formatting.GRAY)));
+        source.sendFeedback(Text.literal("/oc log").formatted(Formatting.GREEN)
+                .append(Text.literal(" - Open full transcript").formatted(Formatting.GRAY)));
+        source.sendFeedback(Text.literal("/oc search <query>").formatted(Formatting.GREEN)
+                .append(Text.literal(" - Search past sessions").formatted(Formatting.GRAY)));
+        source.sendFeedback(Text.literal("/oc context <radius>").formatted(Formatting.GREEN)
+                .append(Text.literal(" - Attach nearby blocks to next prompt").formatted(Formatting.GRAY)));
+        source.sendFeedback(Text.literal("/oc undo").formatted(Formatting.GREEN)
+                .append(Text.literal(" - Undo the agent's last build").formatted(Formatting.GRAY)));
         source.sendFeedback(Text.literal("/oc pause").formatted(Formatting.GREEN)
                 .append(Text.literal(" - Toggle pause control").formatted(Formatting.GRAY)));
         source.sendFeedback(Text.literal("/oc help").formatted(Formatting.GREEN)
@@ -149,9 +186,17 @@ public class OpenCodeCommand {
         OpenCodeClient client = OpenCodeMod.getClient();
         String prompt = StringArgumentType.getString(context, "prompt");
 
-        if (!client.isReady()) {
-            source.sendError(Text.literal("Not connected to OpenCode server"));
-            return 0;
+        // Offline, or earlier prompts still queued: spool it so order is kept
+        if (!client.isReady() || client.getQueuedPromptCount() > 0) {
+            client.queuePrompt(prompt)
+                    .thenAccept(queued -> source.sendFeedback(
+                            Text.literal("Queued (" + queued + " pending), will send when OpenCode is ready")
+                                    .formatted(Formatting.YELLOW)))
+                    .exceptionally(e -> {
+                        source.sendError(Text.literal("Not connected to OpenCode server, and the prompt could not be queued"));
+                        return null;
+                    });
+            return 1;
         }
 
         if (client.getCurrentSession() == null) {
@@ -206,6 +251,94 @@ public class OpenCodeCommand {
         return 1;
     }
 
+    private static int executeLog(CommandContext<FabricClientCommandSource> context) {
+        FabricClientCommandSource source = context.getSource();
+        OpenCodeClient client = OpenCodeMod.getClient();
+
+        // Defer until the chat screen that ran this command has closed itself
+        source.getClient().send(() ->
+                source.getClient().setScreen(client.createTranscriptScreen()));
+
+        return 1;
+    }
+
+    private static int executeContext(CommandContext<FabricClientCommandSource> context) {
+        FabricClientCommandSource source = context.getSource();
+        OpenCodeClient client = OpenCodeMod.getClient();
+        int radius = IntegerArgumentType.getInteger(context, "radius");
+
+        int size = radius * 2 + 1;
+        source.sendFeedback(Text.literal("Snapshotting " + size + "x" + size + "x" + size + " blocks...")
+                .formatted(Formatting.GRAY));
+
+        client.captureWorldContext(radius)
+                .thenAccept(snapshot -> source.sendFeedback(
+                        Text.literal("World snapshot ready (" + (snapshot.length() + 1023) / 1024
+                                + " KB), it will be attached to your next prompt").formatted(Formatting.GREEN)))
+                .exceptionally(e -> {
+                    source.sendError(Text.literal("Snapshot failed: " + e.getMessage()));
+                    return null;
+                });
+
+        return 1;
+    }
+
+    private static int executeUndo(CommandContext<FabricClientCommandSource> context) {
+        FabricClientCommandSource source = context.getSource();
+
+        if (!source.getClient().isIntegratedServerRunning()) {
+            source.sendError(Text.literal("Builds can only be undone in singleplayer"));
+            return 0;
+        }
+
+        // Runs on the server thread, under the same per-tick budget as the build
+        OpenCodeMod.getWorldEdits().requestUndo()
+                .thenAccept(restored -> {
+                    if (restored == 0) {
+                        source.sendFeedback(Text.literal("Nothing to undo").formatted(Formatting.YELLOW));
+                    } else {
+                        source.sendFeedback(Text.literal("Restored " + restored + " blocks")
+                                .formatted(Formatting.GREEN));
+                    }
+                });
+
+        return 1;
+    }
+
+    private static int executeSearch(CommandContext<FabricClientCommandSource> context) {
+        FabricClientCommandSource source = context.getSource();
+        OpenCodeClient client = OpenCodeMod.getClient();
+        String query = StringArgumentType.getString(context, "query");
+
+        if (!client.isSearchReady()) {
+            source.sendError(Text.literal("Search index is still loading, try again in a moment"));
+            return 0;
+        }
+
+        List<SessionSearchIndex.Result> results = client.search(query, SEARCH_RESULTS);
+        if (results.isEmpty()) {
+            source.sendFeedback(Text.literal("No sessions match \"" + query + "\"").formatted(Formatting.YELLOW));
+            return 1;
+        }
+
+        source.sendFeedback(Text.literal("=== Search: " + query + " ===").formatted(Formatting.AQUA, Formatting.BOLD));
+        source.sendFeedback(Text.literal("Click a result to switch to it").formatted(Formatting.GRAY));
+
+        for (int i = 0; i < results.size(); i++) {
+            SessionSearchIndex.Result result = results.get(i);
+            String command = "/oc session use " + result.getSessionId();
+            source.sendFeedback(Text.literal((i + 1) + ". ").formatted(Formatting.GREEN)
+                    .append(Text.literal(result.getTitle()).styled(style -> style
+                            .withColor(Formatting.WHITE)
+                            .withUnderline(true)
+                            .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, command))
+                            .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+                                    Text.literal("Switch to " + result.getSessionId()))))));
+        }
+
+        return 1;
+    }
+
     private static int executeSessionNew(CommandContext<FabricClientCommandSource> context) {
         FabricClientCommandSource source = context.getSource();
         OpenCodeClient client = OpenCodeMod.getClient();
@@ -313,7 +446,6 @@ public class OpenCodeCommand {
         OpenCodeMod.getConfigManager().setServerUrl(url);
         source.sendFeedback(Text.literal("Server URL set to: ")
                 .append(Text.literal(url).formatted(Formatting.GREEN)));
-        source.sendFeedback(Text.literal("Restart the game to apply changes").formatted(Formatting.YELLOW));
 
         return 1;
     }
@@ -325,7 +457,6 @@ public class OpenCodeCommand {
         OpenCodeMod.getConfigManager().setWorkingDirectory(path);
         source.sendFeedback(Text.literal("Working directory set to: ")
                 .append(Text.literal(path).formatted(Formatting.GREEN)));
-        source.sendFeedback(Text.literal("Restart the game to apply changes").formatted(Formatting.YELLOW));
 
         return 1;
     }
@@ -2,27 +2,43 @@ package com.opencode.minecraft.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.opencode.minecraft.OpenCodeMod;
 import net.fabricmc.loader.api.FabricLoader;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Manages loading and saving of mod configuration.
+ * Saves are debounced and written off the calling thread by a {@link ConfigPersister}.
+ * Edits made to the file while the game is running are picked up by a
+ * {@link ConfigWatcher} and applied in place, so holders of the config see them.
  */
 public class ConfigManager {
     private static final String CONFIG_FILE = "opencode.json";
+    private static final String DATA_DIRECTORY = "opencode";
+    private static final long SAVE_DEBOUNCE_MS = 500;
     private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
     private final Path configPath;
-    private ModConfig config;
+    private final ConfigPersister persister;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+    private ConfigWatcher watcher;
+    private Executor applyExecutor;
+    private volatile ModConfig config;
 
     public ConfigManager() {
         this.configPath = FabricLoader.getInstance()
                 .getConfigDir()
                 .resolve(CONFIG_FILE);
         this.config = new ModConfig();
+        this.persister = new ConfigPersister(configPath, () -> gson.toJson(config), SAVE_DEBOUNCE_MS);
     }
 
     /**
@@ -32,9 +48,10 @@ public class ConfigManager {
         if (Files.exists(configPath)) {
             try {
                 String json = Files.readString(configPath);
-                config = gson.fromJson(json, ModConfig.class);
+                ModConfig loaded = gson.fromJson(json, ModConfig.class);
+                config = loaded != null ? loaded : new ModConfig();
                 OpenCodeMod.LOGGER.info("Loaded config from {}", configPath);
-            } catch (IOException e) {
+            } catch (IOException | JsonParseException e) {
                 OpenCodeMod.LOGGER.error("Failed to load config", e);
                 config = new ModConfig();
             }
@@ -45,30 +62,67 @@ public class ConfigManager {
     }
 
     /**
-     * Saves configuration to file
+     * Schedules the configuration to be saved to file.
+     * Never blocks on disk I/O, so it is safe to call from the game thread.
      */
     public void save() {
+        persister.requestSave();
+    }
+
+    /**
+     * Starts watching the config file for external edits.
+     * Changes are applied and listeners notified on the given executor.
+     */
+    public void startWatching(Executor applyExecutor) {
+        this.applyExecutor = applyExecutor;
+        this.watcher = new ConfigWatcher(configPath, this::reload);
         try {
-            Files.createDirectories(configPath.getParent());
-            Files.writeString(configPath, gson.toJson(config));
-            OpenCodeMod.LOGGER.debug("Saved config to {}", configPath);
+            watcher.start();
         } catch (IOException e) {
-            OpenCodeMod.LOGGER.error("Failed to save config", e);
+            OpenCodeMod.LOGGER.warn("Config hot-reload unavailable: {}", e.getMessage());
+            watcher = null;
         }
     }
 
+    /**
+     * Writes any pending changes and stops background threads, e.g. on shutdown
+     */
+    public void shutdown() {
+        if (watcher != null) {
+            watcher.stop();
+        }
+        persister.flush();
+    }
+
+    /**
+     * Registers a listener run after the server URL or working directory is
+     * changed, or the file is reloaded
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
     public ModConfig getConfig() {
         return config;
     }
 
+    /**
+     * Gets the directory for mod data files (transcripts, indexes, etc.)
+     */
+    public Path getDataDirectory() {
+        return configPath.resolveSibling(DATA_DIRECTORY);
+    }
+
     public void setServerUrl(String url) {
         config.serverUrl = url;
         save();
+        notifyListeners();
     }
 
     public void setWorkingDirectory(String directory) {
         config.workingDirectory = directory;
         save();
+        notifyListeners();
     }
 
     public void setLastSessionId(String sessionId) {
@@ -76,8 +130,67 @@ public class ConfigManager {
         save();
     }
 
+    /**
+     * Binds a world to the session used in it, so it is resumed there next time
+     */
+    public void bindWorldSession(String worldKey, String sessionId) {
+        if (sessionId.equals(config.worldSessions.put(worldKey, sessionId))) return;
+        save();
+    }
+
     public void setPauseEnabled(boolean enabled) {
         config.pauseEnabled = enabled;
         save();
     }
+
+    /**
+     * Re-reads the file after an external edit. Runs on the watcher thread.
+     */
+    private void reload() {
+        String json;
+        ModConfig loaded;
+        try {
+            json = Files.readString(configPath);
+            loaded = gson.fromJson(json, ModConfig.class);
+        } catch (IOException | JsonParseException e) {
+            OpenCodeMod.LOGGER.warn("Ignoring unreadable config edit, keeping current settings: {}", e.getMessage());
+            return;
+        }
+
+        // Our own writes come back through the watcher too
+        if (loaded == null || json.equals(persister.getLastWritten())) {
+            return;
+        }
+
+        applyExecutor.execute(() -> {
+            copyFields(loaded, config);
+            OpenCodeMod.LOGGER.info("Reloaded config from {}", configPath);
+            notifyListeners();
+        });
+    }
+
+    private void notifyListeners() {
+        for (Runnable listener : changeListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                OpenCodeMod.LOGGER.error("Error in config change listener", e);
+            }
+        }
+    }
+
+    /**
+     * Copies every setting into the live config object, which the rest of
+     * the mod holds references to
+     */
+    private static void copyFields(ModConfig from, ModConfig to) {
+        for (Field field : ModConfig.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            try {
+                field.set(to, field.get(from));
+            } catch (IllegalAccessException e) {
+                OpenCodeMod.LOGGER.warn("Could not reload config field {}", field.getName());
+            }
+        }
+    }
 }
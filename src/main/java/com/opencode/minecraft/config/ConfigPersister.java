@@ -0,0 +1,122 @@
+package com.opencode.minecraft.config;
+
+import com.opencode.minecraft.OpenCodeMod;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind persistence for a single file.
+ *
+ * Save requests are debounced: a burst of changes results in one write,
+ * done on a background thread. Each write goes to a temp file next to the
+ * target which is then atomically moved into place, so a crash mid-write
+ * leaves the previous file intact instead of a truncated one.
+ */
+public class ConfigPersister {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path target;
+    private final Supplier<String> serializer;
+    private final long debounceMs;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private volatile String lastWritten;
+
+    public ConfigPersister(Path target, Supplier<String> serializer, long debounceMs) {
+        this.target = target;
+        this.serializer = serializer;
+        this.debounceMs = debounceMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "OpenCode Config");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Requests a save. Returns immediately; changes made before the
+     * debounced write runs are included in it.
+     */
+    public void requestSave() {
+        if (pending.compareAndSet(false, true)) {
+            if (executor.isShutdown()) {
+                // Already flushed for shutdown; nothing left to defer to
+                writePending();
+                return;
+            }
+            executor.schedule(this::writePending, debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes any pending changes now and stops the background thread.
+     * Blocks until the write is done.
+     */
+    public void flush() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        executor.execute(this::writePending);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                OpenCodeMod.LOGGER.warn("Timed out flushing {}", target);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the content of the most recent write, or null if nothing was written yet
+     */
+    public String getLastWritten() {
+        return lastWritten;
+    }
+
+    private void writePending() {
+        // Cleared before serializing so changes made during the write schedule another
+        if (pending.compareAndSet(true, false)) {
+            try {
+                write(serializer.get());
+            } catch (IOException e) {
+                OpenCodeMod.LOGGER.error("Failed to save {}", target, e);
+            }
+        }
+    }
+
+    private void write(String content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // Data must be on disk before the rename makes it visible
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        lastWritten = content;
+        OpenCodeMod.LOGGER.debug("Saved {}", target);
+    }
+}
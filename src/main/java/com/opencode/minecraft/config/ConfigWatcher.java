@@ -0,0 +1,102 @@
+package com.opencode.minecraft.config;
+
+import com.opencode.minecraft.OpenCodeMod;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a single file for changes made outside the game.
+ *
+ * Editors often save in several steps (truncate, write, rename), so events
+ * are collected until the file has been quiet for a short while and then
+ * reported once.
+ */
+public class ConfigWatcher {
+    private static final long SETTLE_MS = 250;
+
+    private final Path file;
+    private final Runnable onChange;
+    private WatchService watchService;
+    private Thread thread;
+
+    public ConfigWatcher(Path file, Runnable onChange) {
+        this.file = file;
+        this.onChange = onChange;
+    }
+
+    /**
+     * Starts watching on a background thread
+     */
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        thread = new Thread(this::run, "OpenCode Config Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching
+     */
+    public void stop() {
+        if (watchService == null) return;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            OpenCodeMod.LOGGER.debug("Failed to close config watcher: {}", e.getMessage());
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = pollChanged(key);
+
+                // Keep collecting until the file settles
+                while (changed) {
+                    WatchKey next = watchService.poll(SETTLE_MS, TimeUnit.MILLISECONDS);
+                    if (next == null || !pollChanged(next)) {
+                        break;
+                    }
+                }
+
+                if (changed) {
+                    try {
+                        onChange.run();
+                    } catch (Exception e) {
+                        OpenCodeMod.LOGGER.error("Error reloading {}", file, e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Consumes the key's events, returning true if any concern the watched file
+     */
+    private boolean pollChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
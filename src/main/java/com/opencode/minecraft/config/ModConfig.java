@@ -1,5 +1,7 @@
 package com.opencode.minecraft.config;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Configuration for the OpenCode mod.
  */
@@ -19,6 +21,12 @@ public class ModConfig {
      */
     public String lastSessionId = null;
 
+    /**
+     * Session bound to each world, keyed by save folder ("save:<name>")
+     * or server address ("server:<address>")
+     */
+    public ConcurrentHashMap<String, String> worldSessions = new ConcurrentHashMap<>();
+
     /**
      * Whether to automatically reconnect on connection loss
      */
@@ -38,4 +46,108 @@ public class ModConfig {
      * Whether automatic game pausing is enabled
      */
     public boolean pauseEnabled = true;
+
+    /**
+     * How the world is paused: "freeze" uses the vanilla tick freeze, so the
+     * server keeps up its housekeeping; "cancel" skips server ticks entirely
+     */
+    public String pauseBackend = "freeze";
+
+    /**
+     * Frame-rate cap while the game is paused (0 for no cap)
+     */
+    public int pausedFps = 10;
+
+    /**
+     * Whether to skip drawing the world while paused and only show the overlay
+     */
+    public boolean pausedHideWorld = false;
+
+    /**
+     * Whether the pause overlay shows an animated spinner
+     */
+    public boolean pauseOverlaySpinner = false;
+
+    /**
+     * Whether to save the world when a pause starts and put off autosaves while generating
+     */
+    public boolean saveOnPause = true;
+
+    /**
+     * Whether to generate chunks around the player while paused
+     */
+    public boolean pregenerateChunks = false;
+
+    /**
+     * Radius in chunks to generate around the player while paused
+     */
+    public int pregenerateRadius = 16;
+
+    /**
+     * Milliseconds of each paused server tick that may be spent queuing chunks for generation
+     */
+    public int pregenerateBudgetMs = 15;
+
+    /**
+     * Whether the tick rate follows the agent's activity while the game isn't paused:
+     * slow motion while busy, up to full speed while generating
+     */
+    public boolean tickRateGovernor = false;
+
+    /**
+     * Streamed tokens per second at which the governor runs the world at full speed
+     */
+    public float governorTokensPerSecond = 30;
+
+    /**
+     * Whether session transcripts are journaled to disk so they survive restarts
+     */
+    public boolean persistTranscripts = true;
+
+    /**
+     * Heap budget in KB for transcript lines before older ones are moved off-heap
+     */
+    public int transcriptHeapBudgetKb = 1024;
+
+    /**
+     * Off-heap budget in KB for spilled transcript lines. Beyond it, the oldest
+     * lines are read back from the journal instead of being kept in memory.
+     */
+    public int transcriptSpillBudgetKb = 16 * 1024;
+
+    /**
+     * Whether every prompt gets a snapshot of the blocks around the player attached
+     */
+    public boolean autoWorldContext = false;
+
+    /**
+     * Radius in blocks of the automatic world snapshot
+     */
+    public int worldContextRadius = 8;
+
+    /**
+     * Whether setblock and fill commands the agent writes in mcfunction code
+     * blocks are applied to the singleplayer world
+     */
+    public boolean worldEdits = false;
+
+    /**
+     * Time per server tick spent applying the agent's block edits
+     */
+    public int worldEditBudgetMs = 10;
+
+    /**
+     * Number of messages loaded per page of history when switching sessions
+     */
+    public int historyPageSize = 20;
+
+    /**
+     * Whether to keep a pre-created spare session ready so /oc session new is instant
+     */
+    public boolean warmSessionPool = false;
+
+    /**
+     * Minutes an unused spare session is kept before it is deleted and replaced
+     */
+    public int spareSessionTtlMinutes = 30;
 }
@@ -0,0 +1,61 @@
+package com.opencode.minecraft.game;
+
+/**
+ * Moves world saves into time the player can't play anyway.
+ *
+ * When the game enters a pause, the world is saved straight away and the
+ * vanilla autosave countdown starts over, so the next autosave is unlikely
+ * to land in active play. An autosave that falls due while the agent is
+ * generating is put off a second at a time, but never by more than
+ * {@link #MAX_POSTPONE_TICKS}. Server thread only.
+ */
+public class AutosaveScheduler {
+    // Vanilla autosave interval: 5 minutes at 20 TPS
+    public static final int AUTOSAVE_INTERVAL_TICKS = 6000;
+    // Don't save on every short pause; a minute of play at least
+    static final int MIN_TICKS_BETWEEN_SAVES = 1200;
+    // Safety bound: an autosave is never put off for more than 5 minutes
+    static final int MAX_POSTPONE_TICKS = 6000;
+    static final int RETRY_TICKS = 20;
+
+    private boolean wasPaused = false;
+    private int postponedTicks = 0;
+
+    /**
+     * Called every server tick with the pause state. Returns true on entering
+     * a pause if enough has happened since the last save to be worth saving;
+     * the caller then saves and resets the countdown to the full interval.
+     */
+    public boolean shouldSaveOnPause(boolean paused, int ticksUntilAutosave) {
+        boolean entered = paused && !wasPaused;
+        wasPaused = paused;
+        if (!entered) return false;
+
+        return AUTOSAVE_INTERVAL_TICKS - ticksUntilAutosave >= MIN_TICKS_BETWEEN_SAVES;
+    }
+
+    /**
+     * Called every server tick before vanilla counts down. Returns the
+     * countdown to use: pushed back by a second if the autosave is due while
+     * the agent is generating and the safety bound allows it, else unchanged.
+     */
+    public int postponeAutosave(boolean generating, int ticksUntilAutosave) {
+        if (ticksUntilAutosave > 1) return ticksUntilAutosave;
+
+        if (generating && postponedTicks < MAX_POSTPONE_TICKS) {
+            postponedTicks += RETRY_TICKS;
+            return ticksUntilAutosave + RETRY_TICKS;
+        }
+
+        // Saving this tick
+        postponedTicks = 0;
+        return ticksUntilAutosave;
+    }
+
+    /**
+     * Called after the world was saved outside the vanilla schedule
+     */
+    public void onSaved() {
+        postponedTicks = 0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.opencode.minecraft.game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A box of blocks copied out of the world, encoded for the agent as a
+ * palette plus run-length encoded layers.
+ *
+ * Filled on the game thread (see {@link WorldContextCapture}) and encoded
+ * on a worker. Blocks are kept as the game's own objects, so copying is a
+ * reference store; names are only looked up once per distinct block while
+ * encoding. A null block is air.
+ *
+ * @param <T> the game's block type
+ */
+public class BlockSnapshot<T> {
+    static final String AIR = "minecraft:air";
+
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final Object[] blocks;
+
+    public BlockSnapshot(int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.blocks = new Object[sizeX * sizeY * sizeZ];
+    }
+
+    /**
+     * Stores a block at world coordinates inside the box
+     */
+    public void set(int x, int y, int z, T block) {
+        blocks[index(x - originX, y - originY, z - originZ)] = block;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int x, int y, int z) {
+        return (T) blocks[index(x - originX, y - originY, z - originZ)];
+    }
+
+    private int index(int dx, int dy, int dz) {
+        return (dy * sizeZ + dz) * sizeX + dx;
+    }
+
+    /**
+     * Encodes the snapshot as text:
+     * <pre>
+     * origin X Y Z
+     * size SX SY SZ
+     * palette
+     * 0 minecraft:air
+     * 1 minecraft:stone
+     * layers
+     * y=64 1*40 0*3 1
+     * </pre>
+     * Each layer lists rows from low to high z, x fastest, as "index*count"
+     * runs ("index" alone for a single block). Trailing air is dropped and
+     * layers that are all air are left out.
+     */
+    public String encode(Function<T, String> names) {
+        Map<Object, Integer> paletteIndex = new IdentityHashMap<>();
+        Map<String, Integer> nameIndex = new HashMap<>();
+        List<String> palette = new ArrayList<>();
+        palette.add(AIR);
+        nameIndex.put(AIR, 0);
+
+        StringBuilder layers = new StringBuilder();
+        int layerSize = sizeX * sizeZ;
+        for (int dy = 0; dy < sizeY; dy++) {
+            StringBuilder layer = new StringBuilder();
+            int runIndex = -1;
+            int runLength = 0;
+            int end = layer.length();
+
+            for (int i = dy * layerSize; i < (dy + 1) * layerSize; i++) {
+                int index = paletteIndex(blocks[i], names, paletteIndex, nameIndex, palette);
+                if (index == runIndex) {
+                    runLength++;
+                    continue;
+                }
+                if (runLength > 0) {
+                    appendRun(layer, runIndex, runLength);
+                    if (runIndex != 0) end = layer.length();
+                }
+                runIndex = index;
+                runLength = 1;
+            }
+            if (runIndex != 0) {
+                appendRun(layer, runIndex, runLength);
+                end = layer.length();
+            }
+
+            if (end > 0) {
+                layers.append("y=").append(originY + dy).append(layer, 0, end).append('\n');
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("origin ").append(originX).append(' ').append(originY).append(' ').append(originZ).append('\n');
+        out.append("size ").append(sizeX).append(' ').append(sizeY).append(' ').append(sizeZ).append('\n');
+        out.append("palette\n");
+        for (int i = 0; i < palette.size(); i++) {
+            out.append(i).append(' ').append(palette.get(i)).append('\n');
+        }
+        out.append("layers\n").append(layers);
+        return out.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int paletteIndex(Object block, Function<T, String> names, Map<Object, Integer> paletteIndex,
+                                        Map<String, Integer> nameIndex, List<String> palette) {
+        if (block == null) return 0;
+
+        Integer index = paletteIndex.get(block);
+        if (index == null) {
+            // Several block objects (e.g. states of one block) may share a name
+            String name = names.apply((T) block);
+            index = nameIndex.get(name);
+            if (index == null) {
+                index = palette.size();
+                palette.add(name);
+                nameIndex.put(name, index);
+            }
+            paletteIndex.put(block, index);
+        }
+        return index;
+    }
+
+    private static void appendRun(StringBuilder layer, int index, int length) {
+        layer.append(' ').append(index);
+        if (length > 1) {
+            layer.append('*').append(length);
+        }
+    }
+
+    public int getBlockCount() {
+        return blocks.length;
+    }
+}
@@ -0,0 +1,144 @@
+package com.opencode.minecraft.game;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.ChunkStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Generates chunks for {@link ChunkPregenerator} without blocking the
+ * server thread.
+ *
+ * Each chunk is first looked up on disk by the storage worker; chunks that
+ * were already saved fully generated are skipped rather than loaded. Chunks
+ * saved part way, as neighbours of generated chunks are, and missing ones are
+ * held by a ticket of our own while the chunk system generates them in the
+ * background, and released as soon as they are done, after which the
+ * server saves and unloads them as usual. Only a few chunks are in flight
+ * at once. Server thread only.
+ */
+public class ChunkGenerationQueue {
+    static final int MAX_IN_FLIGHT = 8;
+    // Key the chunk serializer stores a chunk's generation status under
+    private static final String STATUS_KEY = "Status";
+    // Expires on its own after 30 seconds should a chunk somehow never finish
+    private static final ChunkTicketType<ChunkPos> PREGEN_TICKET =
+            ChunkTicketType.create("opencode_pregen", Comparator.comparingLong(ChunkPos::toLong), 600);
+
+    private final ServerWorld world;
+    private final List<Request> inFlight = new ArrayList<>();
+    private int generated = 0;
+    private int skipped = 0;
+
+    private static final class Request {
+        final ChunkPos pos;
+        CompletableFuture<Optional<NbtCompound>> onDisk;
+        // Set once the chunk is being generated
+        CompletableFuture<?> generating;
+
+        Request(ChunkPos pos) {
+            this.pos = pos;
+        }
+    }
+
+    public ChunkGenerationQueue(ServerWorld world) {
+        this.world = world;
+    }
+
+    public ServerWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Returns true if another chunk can be requested this tick
+     */
+    public boolean hasRoom() {
+        return inFlight.size() < MAX_IN_FLIGHT;
+    }
+
+    public boolean isIdle() {
+        return inFlight.isEmpty();
+    }
+
+    /**
+     * Starts looking up a chunk, generating it later if it isn't on disk
+     */
+    public void request(int chunkX, int chunkZ) {
+        if (world.isChunkLoaded(chunkX, chunkZ)) {
+            skipped++;
+            return;
+        }
+        Request request = new Request(new ChunkPos(chunkX, chunkZ));
+        request.onDisk = world.getChunkManager().chunkLoadingManager.getNbt(request.pos);
+        inFlight.add(request);
+    }
+
+    /**
+     * Moves requests along: generates chunks found missing from disk and
+     * releases those that are done. Called every paused tick.
+     */
+    public void poll() {
+        Iterator<Request> iterator = inFlight.iterator();
+        while (iterator.hasNext()) {
+            Request request = iterator.next();
+            if (request.generating == null) {
+                if (!request.onDisk.isDone()) continue;
+                if (isSavedFull(request.onDisk)) {
+                    skipped++;
+                    iterator.remove();
+                    continue;
+                }
+                world.getChunkManager().addTicket(PREGEN_TICKET, request.pos, 0, request.pos);
+                request.generating = world.getChunkManager()
+                        .getChunkFutureSyncOnMainThread(request.pos.x, request.pos.z, ChunkStatus.FULL, true);
+            } else if (request.generating.isDone()) {
+                world.getChunkManager().removeTicket(PREGEN_TICKET, request.pos, 0, request.pos);
+                generated++;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns true if the chunk was saved fully generated. Generating a chunk
+     * also saves its neighbours at an earlier status, which still need work.
+     */
+    private static boolean isSavedFull(CompletableFuture<Optional<NbtCompound>> onDisk) {
+        // A failed lookup counts as saved: the chunk is skipped rather than loaded to find out
+        if (onDisk.isCompletedExceptionally()) return true;
+        return onDisk.join()
+                .map(nbt -> ChunkStatus.byId(nbt.getString(STATUS_KEY)) == ChunkStatus.FULL)
+                .orElse(false);
+    }
+
+    /**
+     * Releases every chunk in flight, e.g. when play resumes
+     */
+    public void cancel() {
+        for (Request request : inFlight) {
+            if (request.generating != null) {
+                world.getChunkManager().removeTicket(PREGEN_TICKET, request.pos, 0, request.pos);
+            }
+        }
+        inFlight.clear();
+    }
+
+    public int getGenerated() {
+        return generated;
+    }
+
+    /**
+     * Gets the number of chunks skipped as already loaded or saved fully generated
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,97 @@
+package com.opencode.minecraft.game;
+
+/**
+ * Walks the chunks around the player in a square spiral, nearest rings
+ * first, so pauses can be used to generate the terrain the player is most
+ * likely to explore next.
+ *
+ * Only the walk lives here; the server hook hands each chunk to a
+ * {@link ChunkGenerationQueue} within its per-tick budget. Progress carries
+ * over from one pause to the next and starts again when the player moves
+ * away or changes dimension.
+ * Server thread only.
+ */
+public class ChunkPregenerator {
+    // How far the player may move from the spiral's center before it starts over
+    static final int RECENTER_DISTANCE = 4;
+
+    private Object dimension;
+    private int centerX;
+    private int centerZ;
+    // Next chunk to visit: position on a ring at distance `ring` from the center
+    private int ring = 0;
+    private int index = 0;
+    private int x;
+    private int z;
+    private int visited = 0;
+
+    /**
+     * Points the walk at the player's chunk. Starts over if the player is in
+     * another dimension or has moved too far from the current center.
+     */
+    public void recenter(Object dimension, int chunkX, int chunkZ) {
+        if (dimension == this.dimension
+                && Math.abs(chunkX - centerX) < RECENTER_DISTANCE
+                && Math.abs(chunkZ - centerZ) < RECENTER_DISTANCE) {
+            return;
+        }
+        this.dimension = dimension;
+        this.centerX = chunkX;
+        this.centerZ = chunkZ;
+        this.ring = 0;
+        this.index = 0;
+        this.visited = 0;
+    }
+
+    /**
+     * Moves to the next chunk within the radius, returning false once all have been visited
+     */
+    public boolean advance(int radius) {
+        if (ring > radius) return false;
+
+        if (ring == 0) {
+            x = centerX;
+            z = centerZ;
+        } else {
+            // Each side of ring r covers 2r chunks, starting at its corner
+            int side = index / (2 * ring);
+            int offset = index % (2 * ring);
+            switch (side) {
+                case 0 -> { x = centerX - ring + offset; z = centerZ - ring; }
+                case 1 -> { x = centerX + ring; z = centerZ - ring + offset; }
+                case 2 -> { x = centerX + ring - offset; z = centerZ + ring; }
+                default -> { x = centerX - ring; z = centerZ + ring - offset; }
+            }
+        }
+
+        // Step to the next chunk, moving out a ring once this one is done
+        if (++index >= Math.max(1, 8 * ring)) {
+            ring++;
+            index = 0;
+        }
+        visited++;
+        return true;
+    }
+
+    /**
+     * Returns true once every chunk within the radius has been visited
+     */
+    public boolean isDone(int radius) {
+        return ring > radius;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    /**
+     * Gets the number of chunks visited since the walk last started over
+     */
+    public int getVisited() {
+        return visited;
+    }
+}
@@ -0,0 +1,108 @@
+package com.opencode.minecraft.game;
+
+import com.opencode.minecraft.OpenCodeMod;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves a transcript from one session's journal to another's without
+ * waiting on disk on the game thread.
+ *
+ * The old journal is closed and the new one opened on a background thread,
+ * then attached on the game thread once it is ready. A journal opened for a
+ * session that has since been left is closed instead of attached.
+ */
+public class JournalSwitcher {
+    private final TranscriptBuffer transcript;
+    private final Path directory;
+    private final Executor gameThread;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "OpenCode Journal Switch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Game thread only; bumped on every switch so stale journals are not attached
+    private int switchId = 0;
+
+    public JournalSwitcher(TranscriptBuffer transcript, Path directory, Executor gameThread) {
+        this.transcript = transcript;
+        this.directory = directory;
+        this.gameThread = gameThread;
+    }
+
+    /**
+     * Clears the transcript and starts attaching a session's journal, or
+     * none if sessionId is null. Completes on the game thread with the number
+     * of lines restored from the journal: 0 if it was empty or couldn't be
+     * opened, -1 if another switch came first. Game thread only.
+     */
+    public CompletableFuture<Integer> switchTo(String sessionId) {
+        TranscriptJournal previous = transcript.detachJournal();
+        int id = ++switchId;
+        if (sessionId == null) {
+            close(previous);
+            return CompletableFuture.completedFuture(0);
+        }
+
+        CompletableFuture<Integer> restored = new CompletableFuture<>();
+        run(() -> {
+            if (previous != null) {
+                previous.close();
+            }
+            TranscriptJournal journal;
+            try {
+                journal = TranscriptJournal.open(directory, sessionId);
+            } catch (IOException e) {
+                OpenCodeMod.LOGGER.warn("Failed to open transcript journal for {}: {}", sessionId, e.getMessage());
+                gameThread.execute(() -> restored.complete(id == switchId ? 0 : -1));
+                return;
+            }
+            gameThread.execute(() -> {
+                if (id != switchId) {
+                    close(journal);
+                    restored.complete(-1);
+                    return;
+                }
+                transcript.attachJournal(journal);
+                restored.complete(transcript.getRestoredCount());
+            });
+        });
+        return restored;
+    }
+
+    /**
+     * Clears the transcript and closes its journal, waiting for queued lines
+     * to be written
+     */
+    public void shutdown() {
+        switchId++;
+        close(transcript.detachJournal());
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void close(TranscriptJournal journal) {
+        if (journal != null) {
+            run(journal::close);
+        }
+    }
+
+    private void run(Runnable task) {
+        if (executor.isShutdown()) {
+            task.run();
+        } else {
+            executor.execute(task);
+        }
+    }
+}
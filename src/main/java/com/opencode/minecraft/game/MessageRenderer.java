@@ -1,75 +1,123 @@
 package com.opencode.minecraft.game;
 
+import com.opencode.minecraft.OpenCodeMod;
+import com.opencode.minecraft.client.session.HistoryMessage;
+import com.opencode.minecraft.client.session.SessionSearchIndex;
+import com.opencode.minecraft.config.ModConfig;
 import com.opencode.minecraft.util.MarkdownToMinecraft;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.hud.ChatHud;
+import net.minecraft.client.gui.screen.ChatScreen;
+import net.minecraft.client.util.Window;
+import net.minecraft.network.message.ChatVisibility;
 import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Renders OpenCode messages in Minecraft chat.
  */
 public class MessageRenderer {
-    private StringBuilder currentMessage = new StringBuilder();
-    private boolean messageInProgress = false;
-    private long lastUpdateTime = 0;
+    // Refresh the live tool status in the action bar at most this often
+    private static final long TOOL_STATUS_INTERVAL_MS = 250;
+    // Re-show the queue status before the action bar fades it out
+    private static final long QUEUE_STATUS_INTERVAL_MS = 2000;
+
+    // Lines replayed to chat when rendering resumes after being suspended
+    private static final int CATCH_UP_LINES = 5;
+
+    private final ModConfig config;
+    private final JournalSwitcher journals;
+    private final PartStreamMultiplexer streams = new PartStreamMultiplexer();
+    private final TranscriptBuffer transcript;
+    private final TextLayoutWorker layoutWorker = new TextLayoutWorker();
+    private final ToolCallTracker toolCalls = new ToolCallTracker();
+    private long lastToolStatusTime = 0;
+    // Whether the action bar currently shows a tool call, to be cleared once none is running
+    private boolean toolStatusShown = false;
+    private String queueStatus;
+    private long lastQueueStatusTime = 0;
 
-    // Flush accumulated text every 100ms for smoother output
-    private static final long FLUSH_INTERVAL_MS = 100;
+    // While suspended, lines only go to the transcript
+    private boolean renderSuspended = false;
+    private int suppressedLines = 0;
+
+    private final SessionSearchIndex searchIndex;
+    private String sessionId;
+
+    public MessageRenderer(ModConfig config, Path journalDirectory, SessionSearchIndex searchIndex) {
+        this.config = config;
+        this.searchIndex = searchIndex;
+        this.transcript = new TranscriptBuffer(
+                config.transcriptHeapBudgetKb * 1024L,
+                config.transcriptSpillBudgetKb * 1024L);
+        this.journals = new JournalSwitcher(transcript, journalDirectory,
+                task -> MinecraftClient.getInstance().execute(task));
+    }
 
     /**
-     * Starts a new assistant message
+     * Starts a new assistant message.
+     * Parts are buffered independently, so only complete lines are emitted here.
      */
     public void startNewMessage() {
-        flushCurrentMessage();
-        currentMessage = new StringBuilder();
-        messageInProgress = true;
+        streams.drain(this::sendAssistantMessage);
     }
 
     /**
-     * Appends a delta (token) to the current message
+     * Appends a delta (token) to the buffer of the given part.
+     * Safe to call from the SSE thread.
      */
-    public void appendDelta(String delta) {
-        currentMessage.append(delta);
+    public void appendDelta(String messageId, String partId, String delta) {
+        streams.append(messageId, partId, delta);
+    }
 
-        long now = System.currentTimeMillis();
-        if (now - lastUpdateTime > FLUSH_INTERVAL_MS) {
-            flushCurrentMessage();
-            lastUpdateTime = now;
+    /**
+     * Marks a streamed part as finished so its remaining text is flushed
+     * and its buffer freed. Safe to call from the SSE thread.
+     */
+    public void completePart(String messageId, String partId) {
+        streams.complete(messageId, partId);
+    }
+
+    /**
+     * Called every client tick to flush buffered parts to chat
+     */
+    public void tick() {
+        updateRenderSuspended();
+        streams.drain(this::sendAssistantMessage);
+        flushLayouts();
+        updateToolStatus();
+        updateQueueStatus();
+    }
+
+    /**
+     * Sets the queued-prompt status shown in the action bar, or null for none
+     */
+    public void setQueueStatus(String status) {
+        if (status != null && !status.equals(queueStatus)) {
+            // Show changes right away
+            lastQueueStatusTime = 0;
         }
+        this.queueStatus = status;
     }
 
     /**
-     * Flushes the current message buffer to chat
+     * Flushes all buffered text to chat, including unterminated lines
      */
     public void flushCurrentMessage() {
-        if (currentMessage.length() > 0) {
-            String text = currentMessage.toString();
-            currentMessage = new StringBuilder();
-
-            // Split into lines and render each
-            String[] lines = text.split("\n");
-            for (String line : lines) {
-                if (!line.isEmpty()) {
-                    sendAssistantMessage(line);
-                }
-            }
-        }
-        messageInProgress = false;
+        streams.flushAll(this::sendAssistantMessage);
     }
 
     /**
      * Adds a user message to chat
      */
     public void addUserMessage(String text) {
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client.player == null) return;
-
-        MutableText message = Text.literal("")
-                .append(Text.literal("[You] ").formatted(Formatting.GREEN))
-                .append(Text.literal(text).formatted(Formatting.WHITE));
-
-        client.inGameHud.getChatHud().addMessage(message);
+        emit(new TranscriptLine(TranscriptLine.Kind.USER, text));
     }
 
     /**
@@ -83,66 +131,312 @@ public class MessageRenderer {
      * Sends an assistant message to chat
      */
     private void sendAssistantMessage(String text) {
+        emit(new TranscriptLine(TranscriptLine.Kind.ASSISTANT, text));
+    }
+
+    /**
+     * Sends a system message (status, errors, etc.)
+     */
+    public void sendSystemMessage(String text) {
+        emit(new TranscriptLine(TranscriptLine.Kind.SYSTEM, text));
+    }
+
+    /**
+     * Sends an error message
+     */
+    public void sendErrorMessage(String text) {
+        emit(new TranscriptLine(TranscriptLine.Kind.ERROR, text));
+    }
+
+    /**
+     * Sends a tool execution message
+     */
+    public void sendToolMessage(String toolName, String status) {
+        emit(new TranscriptLine(TranscriptLine.Kind.TOOL, toolName + ": " + status));
+    }
+
+    /**
+     * Applies a tool part update. In-flight calls are shown live in the
+     * action bar; chat only gets one line per call once it finishes.
+     */
+    public void onToolUpdate(String callId, String toolName, String state, long startTime, long endTime) {
+        long now = System.currentTimeMillis();
+        ToolCallTracker.ToolCall finished = toolCalls.update(callId, toolName, state, startTime, endTime, now);
+        if (finished != null) {
+            sendToolMessage(toolName, state + " (" + formatDuration(finished.getDurationMs(now)) + ")");
+        }
+    }
+
+    /**
+     * Shows the newest in-flight tool call in the action bar, rate-limited,
+     * clearing it once no call is running
+     */
+    private void updateToolStatus() {
+        if (!config.showStatusBar || renderSuspended) return;
+
+        long now = System.currentTimeMillis();
+        if (now - lastToolStatusTime < TOOL_STATUS_INTERVAL_MS) return;
+        if (!toolCalls.consumeDirty()) return;
+        lastToolStatusTime = now;
+
         MinecraftClient client = MinecraftClient.getInstance();
         if (client.player == null) return;
 
-        // Convert markdown to Minecraft formatting
-        Text formatted = MarkdownToMinecraft.convert(text);
-
-        MutableText message = Text.literal("")
-                .append(Text.literal("[OpenCode] ").formatted(Formatting.AQUA))
-                .append(formatted);
+        ToolCallTracker.ToolCall newest = null;
+        for (ToolCallTracker.ToolCall call : toolCalls.getActive()) {
+            newest = call;
+        }
+        if (newest == null) {
+            if (toolStatusShown) {
+                toolStatusShown = false;
+                if (queueStatus != null) {
+                    // The queue status takes the action bar back right away
+                    lastQueueStatusTime = 0;
+                } else {
+                    client.inGameHud.setOverlayMessage(Text.empty(), false);
+                }
+            }
+            return;
+        }
 
-        client.inGameHud.getChatHud().addMessage(message);
+        MutableText status = formatTool(newest.getToolName() + ": " + newest.getState());
+        int others = toolCalls.getActive().size() - 1;
+        if (others > 0) {
+            status.append(Text.literal(" +" + others + " more").formatted(Formatting.GRAY));
+        }
+        client.inGameHud.setOverlayMessage(status, false);
+        toolStatusShown = true;
     }
 
     /**
-     * Sends a system message (status, errors, etc.)
+     * Keeps the queued-prompt status in the action bar while no tool is running
      */
-    public void sendSystemMessage(String text) {
+    private void updateQueueStatus() {
+        if (queueStatus == null || !config.showStatusBar || renderSuspended) return;
+        if (!toolCalls.getActive().isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        if (now - lastQueueStatusTime < QUEUE_STATUS_INTERVAL_MS) return;
+        lastQueueStatusTime = now;
+
         MinecraftClient client = MinecraftClient.getInstance();
         if (client.player == null) return;
+        client.inGameHud.setOverlayMessage(Text.literal(queueStatus).formatted(Formatting.GOLD), false);
+    }
 
-        MutableText message = Text.literal("")
-                .append(Text.literal("[OpenCode] ").formatted(Formatting.GOLD))
-                .append(Text.literal(text).formatted(Formatting.YELLOW));
+    private static String formatDuration(long ms) {
+        if (ms < 1000) {
+            return ms + "ms";
+        }
+        if (ms < 60_000) {
+            return String.format("%.1fs", ms / 1000.0);
+        }
+        return (ms / 60_000) + "m " + (ms / 1000 % 60) + "s";
+    }
 
-        client.inGameHud.getChatHud().addMessage(message);
+    /**
+     * Called on the game thread when the active session changes.
+     * Drops buffered output and switches to that session's transcript.
+     * Its journal is opened in the background; the future completes on the
+     * game thread with the number of earlier lines restored from it, or -1
+     * if the session changed again first.
+     */
+    public CompletableFuture<Integer> onSessionChanged(String sessionId) {
+        this.sessionId = sessionId;
+        streams.clear();
+        toolCalls.clear();
+        suppressedLines = 0;
+
+        return journals.switchTo(config.persistTranscripts ? sessionId : null);
     }
 
     /**
-     * Sends an error message
+     * Prepends a page of server history to the transcript. The first page
+     * also puts its last few lines in chat, the rest is in /oc log.
+     *
+     * @param messages page of messages in chronological order
+     * @param reachedStart whether this page begins at the start of the session
+     * @param firstPage whether this is the newest page, loaded on switch
      */
-    public void sendErrorMessage(String text) {
+    public void showHistory(List<HistoryMessage> messages, boolean reachedStart, boolean firstPage) {
+        List<TranscriptLine> lines = new ArrayList<>();
+        if (reachedStart) {
+            lines.add(new TranscriptLine(TranscriptLine.Kind.SYSTEM, "Start of session"));
+        }
+        for (HistoryMessage message : messages) {
+            boolean user = "user".equals(message.getRole());
+            for (HistoryMessage.Part part : message.getParts()) {
+                if (part.isText()) {
+                    TranscriptLine.Kind kind = user ? TranscriptLine.Kind.USER : TranscriptLine.Kind.ASSISTANT;
+                    for (String text : part.getText().split("\n")) {
+                        if (!text.isBlank()) {
+                            lines.add(new TranscriptLine(kind, text));
+                        }
+                    }
+                } else {
+                    lines.add(new TranscriptLine(TranscriptLine.Kind.TOOL,
+                            part.getToolName() + ": " + part.getToolState()));
+                }
+            }
+        }
+        transcript.prependHistory(lines);
+
+        if (!firstPage || messages.isEmpty() || renderSuspended) return;
+        if (MinecraftClient.getInstance().player == null) return;
+
+        int replay = Math.min(lines.size(), CATCH_UP_LINES);
+        layoutWorker.submit(new TranscriptLine(TranscriptLine.Kind.SYSTEM,
+                "Loaded " + messages.size() + " earlier messages (/oc log to scroll back)"));
+        for (int i = lines.size() - replay; i < lines.size(); i++) {
+            layoutWorker.submit(lines.get(i));
+        }
+    }
+
+    /**
+     * Flushes and closes everything that owns a thread or file
+     */
+    public void shutdown() {
+        journals.shutdown();
+        layoutWorker.shutdown();
+    }
+
+    /**
+     * Gets the full transcript of everything rendered this session
+     */
+    public TranscriptBuffer getTranscript() {
+        return transcript;
+    }
+
+    /**
+     * Records a line in the transcript and queues it for chat.
+     * Formatting happens on the layout worker.
+     */
+    private void emit(TranscriptLine line) {
+        transcript.append(line);
+        if (sessionId != null && (line.getKind() == TranscriptLine.Kind.USER
+                || line.getKind() == TranscriptLine.Kind.ASSISTANT)) {
+            searchIndex.addText(sessionId, line.getText());
+        }
+
+        // Nobody can see chat right now - catch up once it's visible again
+        if (renderSuspended) {
+            suppressedLines++;
+            return;
+        }
+
         MinecraftClient client = MinecraftClient.getInstance();
         if (client.player == null) return;
 
-        MutableText message = Text.literal("")
-                .append(Text.literal("[OpenCode Error] ").formatted(Formatting.RED))
-                .append(Text.literal(text).formatted(Formatting.RED));
+        layoutWorker.submit(line);
+    }
+
+    /**
+     * Suspends chat rendering while the window is unfocused or minimized,
+     * the HUD or chat is hidden, or a full-screen menu covers the game.
+     */
+    private void updateRenderSuspended() {
+        MinecraftClient client = MinecraftClient.getInstance();
 
-        client.inGameHud.getChatHud().addMessage(message);
+        // The transcript screen shows new lines live, so there's nothing to catch up on
+        if (client.currentScreen instanceof TranscriptScreen) {
+            suppressedLines = 0;
+        }
+
+        boolean suspended = isChatInvisible(client);
+        if (suspended == renderSuspended) return;
+
+        renderSuspended = suspended;
+        if (!suspended) {
+            renderCatchUp();
+        }
+    }
+
+    private static boolean isChatInvisible(MinecraftClient client) {
+        if (!client.isWindowFocused()) return true;
+
+        Window window = client.getWindow();
+        if (window.getFramebufferWidth() == 0 || window.getFramebufferHeight() == 0) return true;
+
+        if (client.options.hudHidden) return true;
+        if (client.options.getChatVisibility().getValue() == ChatVisibility.HIDDEN) return true;
+
+        // Any screen other than chat itself hides the chat HUD
+        return client.currentScreen != null && !(client.currentScreen instanceof ChatScreen);
     }
 
     /**
-     * Sends a tool execution message
+     * Renders one summarized catch-up of what was missed while suspended
      */
-    public void sendToolMessage(String toolName, String status) {
+    private void renderCatchUp() {
+        int missed = Math.min(suppressedLines, transcript.size());
+        suppressedLines = 0;
+        if (missed == 0) return;
+
         MinecraftClient client = MinecraftClient.getInstance();
         if (client.player == null) return;
 
-        Formatting statusColor = switch (status) {
+        int replay = Math.min(missed, CATCH_UP_LINES);
+        if (missed > replay) {
+            // Chat only - the transcript already holds everything
+            layoutWorker.submit(new TranscriptLine(TranscriptLine.Kind.SYSTEM,
+                    missed + " lines while away, showing the last " + replay + " (/oc log for all)"));
+        }
+        for (int i = transcript.size() - replay; i < transcript.size(); i++) {
+            layoutWorker.submit(transcript.get(i));
+        }
+    }
+
+    /**
+     * Pushes lines the layout worker has finished to chat
+     */
+    private void flushLayouts() {
+        ChatHud chatHud = MinecraftClient.getInstance().inGameHud.getChatHud();
+        layoutWorker.drain(chatHud::addMessage);
+    }
+
+    /**
+     * Converts a transcript line to formatted chat text
+     */
+    public static Text format(TranscriptLine line) {
+        String text = line.getText();
+
+        return switch (line.getKind()) {
+            case USER -> Text.literal("")
+                    .append(Text.literal("[You] ").formatted(Formatting.GREEN))
+                    .append(Text.literal(text).formatted(Formatting.WHITE));
+            // Convert markdown to Minecraft formatting
+            case ASSISTANT -> Text.literal("")
+                    .append(Text.literal("[OpenCode] ").formatted(Formatting.AQUA))
+                    .append(MarkdownToMinecraft.convert(text));
+            case SYSTEM -> Text.literal("")
+                    .append(Text.literal("[OpenCode] ").formatted(Formatting.GOLD))
+                    .append(Text.literal(text).formatted(Formatting.YELLOW));
+            case ERROR -> Text.literal("")
+                    .append(Text.literal("[OpenCode Error] ").formatted(Formatting.RED))
+                    .append(Text.literal(text).formatted(Formatting.RED));
+            case TOOL -> formatTool(text);
+        };
+    }
+
+    private static MutableText formatTool(String text) {
+        int split = text.lastIndexOf(": ");
+        String toolName = split >= 0 ? text.substring(0, split) : text;
+        String status = split >= 0 ? text.substring(split + 2) : "";
+
+        // Finished calls carry their duration after the state, e.g. "completed (1.2s)"
+        int space = status.indexOf(' ');
+        String state = space >= 0 ? status.substring(0, space) : status;
+
+        Formatting statusColor = switch (state) {
             case "running" -> Formatting.YELLOW;
             case "completed" -> Formatting.GREEN;
-            case "failed" -> Formatting.RED;
+            case "failed", "error" -> Formatting.RED;
             default -> Formatting.GRAY;
         };
 
-        MutableText message = Text.literal("")
+        return Text.literal("")
                 .append(Text.literal("[Tool] ").formatted(Formatting.DARK_PURPLE))
                 .append(Text.literal(toolName + ": ").formatted(Formatting.LIGHT_PURPLE))
                 .append(Text.literal(status).formatted(statusColor));
-
-        client.inGameHud.getChatHud().addMessage(message);
     }
 }
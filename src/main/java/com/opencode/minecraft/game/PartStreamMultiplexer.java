@@ -0,0 +1,179 @@
+package com.opencode.minecraft.game;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Demultiplexes streamed text deltas into one buffer per (messageID, partID).
+ *
+ * Deltas are offered from the SSE thread without taking any locks. The game
+ * thread drains every buffer on tick and emits complete lines only, so parts
+ * that the server interleaves (multiple text parts, parallel tools, subagents)
+ * never end up mixed into the same chat line.
+ */
+public class PartStreamMultiplexer {
+    // Emit an unterminated line anyway once its part has been quiet this long
+    private static final long PARTIAL_FLUSH_MS = 750;
+
+    // Force out an unterminated line that grows beyond this many characters
+    private static final int MAX_PENDING_CHARS = 512;
+
+    private final Map<PartKey, PartBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * Queues a delta for a part. Safe to call from the SSE thread.
+     */
+    public void append(String messageId, String partId, String delta) {
+        if (delta == null || delta.isEmpty()) return;
+
+        PartKey key = new PartKey(messageId, partId);
+        PartBuffer buffer = buffers.get(key);
+        if (buffer == null) {
+            PartBuffer created = new PartBuffer();
+            buffer = buffers.putIfAbsent(key, created);
+            if (buffer == null) {
+                buffer = created;
+            }
+        }
+        buffer.incoming.offer(delta);
+    }
+
+    /**
+     * Marks a part as finished. Its remaining text is emitted and its buffer
+     * freed on the next drain. Safe to call from the SSE thread.
+     */
+    public void complete(String messageId, String partId) {
+        PartBuffer buffer = buffers.get(new PartKey(messageId, partId));
+        if (buffer != null) {
+            buffer.completed = true;
+        }
+    }
+
+    /**
+     * Drains all part buffers, emitting each complete line to the sink.
+     * Must be called from the game thread.
+     */
+    public void drain(Consumer<String> lineSink) {
+        drain(System.currentTimeMillis(), lineSink, false);
+    }
+
+    /**
+     * Drains all part buffers and emits any unterminated text as well.
+     * Must be called from the game thread.
+     */
+    public void flushAll(Consumer<String> lineSink) {
+        drain(System.currentTimeMillis(), lineSink, true);
+    }
+
+    void drain(long now, Consumer<String> lineSink, boolean force) {
+        Iterator<Map.Entry<PartKey, PartBuffer>> it = buffers.entrySet().iterator();
+        while (it.hasNext()) {
+            PartBuffer buffer = it.next().getValue();
+
+            // Read the flag before polling: everything appended before complete()
+            // is guaranteed to be visible in the queue once we've seen it set
+            boolean completed = buffer.completed;
+
+            boolean received = false;
+            String delta;
+            while ((delta = buffer.incoming.poll()) != null) {
+                buffer.pending.append(delta);
+                received = true;
+            }
+            if (received) {
+                buffer.lastActivity = now;
+            }
+
+            emitCompleteLines(buffer.pending, lineSink);
+
+            boolean stale = now - buffer.lastActivity >= PARTIAL_FLUSH_MS;
+            if (completed || force || stale || buffer.pending.length() >= MAX_PENDING_CHARS) {
+                emitRemainder(buffer.pending, lineSink);
+            }
+
+            if (completed) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Discards all buffered text, e.g. when switching sessions
+     */
+    public void clear() {
+        buffers.clear();
+    }
+
+    /**
+     * Returns the number of parts currently holding a buffer
+     */
+    public int activeParts() {
+        return buffers.size();
+    }
+
+    private static void emitCompleteLines(StringBuilder pending, Consumer<String> lineSink) {
+        int start = 0;
+        int newline;
+        while ((newline = pending.indexOf("\n", start)) >= 0) {
+            emitLine(pending.substring(start, newline), lineSink);
+            start = newline + 1;
+        }
+        if (start > 0) {
+            pending.delete(0, start);
+        }
+    }
+
+    private static void emitRemainder(StringBuilder pending, Consumer<String> lineSink) {
+        if (pending.length() > 0) {
+            emitLine(pending.toString(), lineSink);
+            pending.setLength(0);
+        }
+    }
+
+    private static void emitLine(String line, Consumer<String> lineSink) {
+        if (!line.isEmpty()) {
+            lineSink.accept(line);
+        }
+    }
+
+    /**
+     * Identifies a streamed part. Missing IDs collapse into a shared key so
+     * servers that omit them still get the old single-buffer behavior.
+     */
+    private static final class PartKey {
+        private final String messageId;
+        private final String partId;
+
+        PartKey(String messageId, String partId) {
+            this.messageId = messageId != null ? messageId : "";
+            this.partId = partId != null ? partId : "";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PartKey other)) return false;
+            return messageId.equals(other.messageId) && partId.equals(other.partId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(messageId, partId);
+        }
+    }
+
+    /**
+     * Per-part state. The queue is the only field written by the SSE thread;
+     * the builder and timestamp belong to the game thread.
+     */
+    private static final class PartBuffer {
+        final ConcurrentLinkedQueue<String> incoming = new ConcurrentLinkedQueue<>();
+        final StringBuilder pending = new StringBuilder();
+        volatile boolean completed = false;
+        long lastActivity = System.currentTimeMillis();
+    }
+}
@@ -2,7 +2,8 @@ package com.opencode.minecraft.game;
 
 import com.opencode.minecraft.OpenCodeMod;
 import com.opencode.minecraft.client.session.SessionStatus;
-import net.minecraft.client.MinecraftClient;
+
+import java.util.function.LongSupplier;
 
 /**
  * Controls game pause state based on OpenCode session status.
@@ -14,66 +15,95 @@ import net.minecraft.client.MinecraftClient;
  * - RESUME when session status is GENERATING (outputting tokens)
  *
  * Status is driven by session.status SSE events from OpenCode server.
+ *
+ * The decision is recomputed only when an input changes (status, typing,
+ * world join or leave, end of the grace period) and published as a single
+ * volatile flag, so the server, input and render threads all see the same answer.
  */
 public class PauseController {
+    // Wait 3 seconds after joining before enabling pause; the only join grace, server hooks included
+    private static final long STARTUP_GRACE_PERIOD_MS = 3000;
+
+    private final LongSupplier clock;
+    private final TickRateGovernor governor = new TickRateGovernor(30);
+    private volatile boolean governorEnabled = false;
+
+    // Inputs to the pause decision; only written under the lock
     private volatile SessionStatus currentStatus = SessionStatus.DISCONNECTED;
     private volatile boolean userTyping = false;
     private volatile boolean enabled = true;
-    private volatile boolean gameReady = false;
-    private volatile long gameReadyTime = 0;
+    private volatile boolean tickFreeze = true;
+    private volatile int pausedFpsLimit = 10;
+    private volatile boolean hideWorldWhilePaused = false;
+    private volatile boolean overlaySpinner = false;
+    private volatile boolean saveOnPause = true;
+    private volatile boolean pregenerateChunks = false;
+    private volatile int pregenerateRadius = 16;
+    private volatile int pregenerateBudgetMs = 15;
+    private boolean inSingleplayerWorld = false;
+    // When the grace period after joining ends, or 0 once it has
+    private volatile long graceEndsAt = 0;
 
-    // Wait 3 seconds after joining before enabling pause
-    private static final long STARTUP_GRACE_PERIOD_MS = 3000;
+    // The decision itself, recomputed on every transition and read by hot paths
+    private volatile boolean paused = false;
+
+    public PauseController() {
+        this(System::currentTimeMillis);
+    }
+
+    PauseController(LongSupplier clock) {
+        this.clock = clock;
+    }
 
     /**
-     * Called every client tick to update pause state
+     * Called every client tick and frame; ends the grace period and feeds the
+     * tick-rate governor
      */
     public void tick() {
-        // No longer using delta timeout - we rely on session.status events from OpenCode
-        // OpenCode will tell us when it's idle vs busy
+        if (governorEnabled) {
+            governor.update(currentStatus, clock.getAsLong());
+        }
+
+        long endsAt = graceEndsAt;
+        if (endsAt == 0 || clock.getAsLong() < endsAt) return;
+
+        synchronized (this) {
+            if (graceEndsAt != endsAt) return;
+            graceEndsAt = 0;
+            OpenCodeMod.LOGGER.debug("Pause grace period over");
+            recompute();
+        }
     }
 
     /**
-     * Determines if the game should currently be paused.
-     * Called from the IntegratedServerMixin.
+     * Determines if the game should currently be paused. Called every server
+     * tick, input tick and frame, so this is a single read of a value
+     * recomputed whenever one of its inputs changes.
      */
     public boolean shouldGameBePaused() {
-        if (!enabled) return false;
-
-        MinecraftClient client = MinecraftClient.getInstance();
-        if (client == null || client.world == null) return false;
-
-        // Only pause in singleplayer
-        if (!client.isIntegratedServerRunning()) return false;
-
-        // Don't pause until player is fully in the game
-        if (client.player == null) return false;
+        return paused;
+    }
 
-        // Track when game becomes ready
-        if (!gameReady) {
-            gameReady = true;
-            gameReadyTime = System.currentTimeMillis();
+    /**
+     * Called once the player has joined a world. Only singleplayer worlds are
+     * paused, and not until the grace period has passed.
+     */
+    public synchronized void onWorldJoin(boolean singleplayer) {
+        inSingleplayerWorld = singleplayer;
+        graceEndsAt = singleplayer ? clock.getAsLong() + STARTUP_GRACE_PERIOD_MS : 0;
+        if (singleplayer) {
             OpenCodeMod.LOGGER.info("Game ready, pause will activate in {}ms", STARTUP_GRACE_PERIOD_MS);
         }
-
-        // Grace period after joining - don't pause yet
-        if (System.currentTimeMillis() - gameReadyTime < STARTUP_GRACE_PERIOD_MS) {
-            return false;
-        }
-
-        // Pause if user is typing a prompt
-        if (userTyping) return true;
-
-        // Pause based on session status
-        return currentStatus.shouldPause();
+        recompute();
     }
 
     /**
      * Called when leaving a world to reset the ready state
      */
-    public void onWorldUnload() {
-        gameReady = false;
-        gameReadyTime = 0;
+    public synchronized void onWorldUnload() {
+        inSingleplayerWorld = false;
+        graceEndsAt = 0;
+        recompute();
     }
 
     /**
@@ -81,6 +111,7 @@ public class PauseController {
      * Transitions to GENERATING state to indicate active output.
      */
     public void onDeltaReceived() {
+        governor.onDelta();
         if (currentStatus != SessionStatus.GENERATING) {
             setStatus(SessionStatus.GENERATING);
         }
@@ -89,19 +120,21 @@ public class PauseController {
     /**
      * Sets the current session status
      */
-    public void setStatus(SessionStatus status) {
+    public synchronized void setStatus(SessionStatus status) {
         if (this.currentStatus != status) {
             SessionStatus oldStatus = this.currentStatus;
             this.currentStatus = status;
             OpenCodeMod.LOGGER.debug("Pause controller status: {} -> {}", oldStatus, status);
+            recompute();
         }
     }
 
     /**
      * Sets whether the user is currently typing a prompt
      */
-    public void setUserTyping(boolean typing) {
+    public synchronized void setUserTyping(boolean typing) {
         this.userTyping = typing;
+        recompute();
     }
 
     /**
@@ -121,8 +154,121 @@ public class PauseController {
     /**
      * Enables or disables the pause controller
      */
-    public void setEnabled(boolean enabled) {
+    public synchronized void setEnabled(boolean enabled) {
         this.enabled = enabled;
+        recompute();
+    }
+
+    /**
+     * Sets whether pausing freezes the world with the vanilla tick freeze
+     * (true) or skips server ticks entirely (false)
+     */
+    public void setTickFreeze(boolean tickFreeze) {
+        this.tickFreeze = tickFreeze;
+    }
+
+    /**
+     * Returns true if pausing uses the vanilla tick freeze
+     */
+    public boolean isTickFreeze() {
+        return tickFreeze;
+    }
+
+    /**
+     * Sets how the client renders while paused: the frame-rate cap (0 for
+     * none) and whether the world is drawn under the overlay at all
+     */
+    public void setPausedRendering(int fpsLimit, boolean hideWorld) {
+        this.pausedFpsLimit = Math.max(0, fpsLimit);
+        this.hideWorldWhilePaused = hideWorld;
+    }
+
+    /**
+     * Gets the frame-rate cap while paused, or 0 for none
+     */
+    public int getPausedFpsLimit() {
+        return pausedFpsLimit;
+    }
+
+    /**
+     * Returns true if only the overlay is drawn while paused
+     */
+    public boolean isHideWorldWhilePaused() {
+        return hideWorldWhilePaused;
+    }
+
+    /**
+     * Sets whether the pause overlay shows an animated spinner
+     */
+    public void setOverlaySpinner(boolean overlaySpinner) {
+        this.overlaySpinner = overlaySpinner;
+    }
+
+    public boolean isOverlaySpinner() {
+        return overlaySpinner;
+    }
+
+    /**
+     * Sets whether the world is saved when a pause starts, with autosaves
+     * put off while the agent is generating
+     */
+    public void setSaveOnPause(boolean saveOnPause) {
+        this.saveOnPause = saveOnPause;
+    }
+
+    /**
+     * Returns true if world saves are moved into pauses
+     */
+    public boolean isSaveOnPause() {
+        return saveOnPause;
+    }
+
+    /**
+     * Sets whether pauses are used to generate chunks within radius of the
+     * player, spending at most budgetMs of each server tick
+     */
+    public void setPregeneration(boolean enabled, int radius, int budgetMs) {
+        this.pregenerateRadius = Math.max(0, radius);
+        this.pregenerateBudgetMs = Math.max(1, budgetMs);
+        this.pregenerateChunks = enabled;
+    }
+
+    /**
+     * Returns true if chunks are generated around the player while paused
+     */
+    public boolean isPregenerateChunks() {
+        return pregenerateChunks;
+    }
+
+    public int getPregenerateRadius() {
+        return pregenerateRadius;
+    }
+
+    public int getPregenerateBudgetMs() {
+        return pregenerateBudgetMs;
+    }
+
+    /**
+     * Enables scaling the tick rate with agent throughput while not paused.
+     * The world runs at full speed at referenceTokensPerSecond or more.
+     */
+    public void setGovernor(boolean enabled, float referenceTokensPerSecond) {
+        governor.setReferenceTokensPerSecond(referenceTokensPerSecond);
+        this.governorEnabled = enabled;
+    }
+
+    /**
+     * Returns true if the tick rate follows agent throughput
+     */
+    public boolean isGovernorEnabled() {
+        return governorEnabled;
+    }
+
+    /**
+     * Gets the tick rate the governor wants the world to run at
+     */
+    public float getTargetTickRate() {
+        return governor.getTargetRate();
     }
 
     /**
@@ -147,4 +293,18 @@ public class PauseController {
             case RETRY -> "Retrying...";
         };
     }
+
+    /**
+     * Recomputes and publishes the pause decision; callers hold the lock
+     */
+    private void recompute() {
+        boolean next = enabled
+                && inSingleplayerWorld
+                && graceEndsAt == 0
+                && (userTyping || currentStatus.shouldPause());
+        if (next != paused) {
+            paused = next;
+            OpenCodeMod.LOGGER.debug("Game {}", next ? "paused" : "resumed");
+        }
+    }
 }
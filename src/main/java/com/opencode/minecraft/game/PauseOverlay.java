@@ -5,13 +5,28 @@ import com.opencode.minecraft.client.session.SessionStatus;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.font.TextRenderer;
 import net.minecraft.client.gui.DrawContext;
+import net.minecraft.text.OrderedText;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
+import net.minecraft.util.Util;
 
 /**
  * Renders an overlay when the game is paused by OpenCode.
+ *
+ * The overlay is on screen for most of a pause, so its text is laid out once
+ * per status and screen size and every frame just redraws that layout. The
+ * optional spinner cycles through frames built up front, so nothing is
+ * allocated per frame.
  */
 public class PauseOverlay {
+    private static final String HINT = "Use /oc <prompt> to give OpenCode a task";
+    private static final String[] SPINNER = {"\u280B", "\u2819", "\u2839", "\u2838", "\u283C", "\u2834", "\u2826", "\u2827", "\u2807", "\u280F"};
+    private static final long SPINNER_FRAME_MS = 100;
+
+    // Render thread only
+    private static Layout layout;
+    private static OrderedText[] spinnerFrames;
+    private static int spinnerWidth;
 
     /**
      * Renders the pause overlay if the game is paused.
@@ -30,49 +45,37 @@ public class PauseOverlay {
         int screenHeight = client.getWindow().getScaledHeight();
         TextRenderer textRenderer = client.textRenderer;
 
-        // Semi-transparent dark overlay
-        int overlayColor = 0x88000000;
-        context.fill(0, 0, screenWidth, screenHeight, overlayColor);
-
-        // Main message
-        String mainMessage = getMainMessage(pauseController);
-        String subMessage = getSubMessage(pauseController);
-
-        // Center the text
-        int mainWidth = textRenderer.getWidth(mainMessage);
-        int subWidth = textRenderer.getWidth(subMessage);
-
-        int centerX = screenWidth / 2;
-        int centerY = screenHeight / 2;
-
-        // Draw main message with shadow
-        context.drawTextWithShadow(
-            textRenderer,
-            Text.literal(mainMessage).formatted(Formatting.GOLD, Formatting.BOLD),
-            centerX - mainWidth / 2,
-            centerY - 20,
-            0xFFFFAA00
-        );
-
-        // Draw sub message
-        context.drawTextWithShadow(
-            textRenderer,
-            Text.literal(subMessage).formatted(Formatting.GRAY),
-            centerX - subWidth / 2,
-            centerY + 5,
-            0xFFAAAAAA
-        );
-
-        // Draw hint at bottom
-        String hint = "Use /oc <prompt> to give OpenCode a task";
-        int hintWidth = textRenderer.getWidth(hint);
-        context.drawTextWithShadow(
-            textRenderer,
-            Text.literal(hint).formatted(Formatting.DARK_GRAY, Formatting.ITALIC),
-            centerX - hintWidth / 2,
-            centerY + 30,
-            0xFF666666
-        );
+        Layout current = layout;
+        if (current == null || !current.matches(pauseController, screenWidth, screenHeight)) {
+            current = new Layout(pauseController, textRenderer, screenWidth, screenHeight);
+            layout = current;
+        }
+
+        context.fill(0, 0, screenWidth, screenHeight, current.overlayColor);
+        context.drawTextWithShadow(textRenderer, current.main, current.mainX, current.mainY, 0xFFFFAA00);
+        context.drawTextWithShadow(textRenderer, current.sub, current.subX, current.subY, 0xFFAAAAAA);
+        context.drawTextWithShadow(textRenderer, current.hint, current.hintX, current.hintY, 0xFF666666);
+
+        if (pauseController.isOverlaySpinner()) {
+            if (spinnerFrames == null) {
+                buildSpinner(textRenderer);
+            }
+            int frame = (int) ((Util.getMeasuringTimeMs() / SPINNER_FRAME_MS) % spinnerFrames.length);
+            context.drawTextWithShadow(textRenderer, spinnerFrames[frame],
+                    current.mainX - spinnerWidth - 4, current.mainY, 0xFFFFAA00);
+        }
+    }
+
+    private static void buildSpinner(TextRenderer textRenderer) {
+        OrderedText[] frames = new OrderedText[SPINNER.length];
+        int width = 0;
+        for (int i = 0; i < SPINNER.length; i++) {
+            Text frame = Text.literal(SPINNER[i]).formatted(Formatting.GOLD);
+            frames[i] = frame.asOrderedText();
+            width = Math.max(width, textRenderer.getWidth(frame));
+        }
+        spinnerWidth = width;
+        spinnerFrames = frames;
     }
 
     private static String getMainMessage(PauseController controller) {
@@ -106,4 +109,62 @@ public class PauseOverlay {
             case RETRY -> "Connection issue, retrying...";
         };
     }
+
+    /**
+     * Overlay text laid out for one status and screen size
+     */
+    private static final class Layout {
+        final SessionStatus status;
+        final boolean typing;
+        final boolean hideWorld;
+        final int screenWidth;
+        final int screenHeight;
+
+        final int overlayColor;
+        final OrderedText main;
+        final OrderedText sub;
+        final OrderedText hint;
+        final int mainX;
+        final int mainY;
+        final int subX;
+        final int subY;
+        final int hintX;
+        final int hintY;
+
+        Layout(PauseController controller, TextRenderer textRenderer, int screenWidth, int screenHeight) {
+            this.status = controller.getStatus();
+            this.typing = controller.isUserTyping();
+            this.hideWorld = controller.isHideWorldWhilePaused();
+            this.screenWidth = screenWidth;
+            this.screenHeight = screenHeight;
+
+            // Semi-transparent dark overlay, or an opaque one when the world isn't drawn
+            this.overlayColor = hideWorld ? 0xFF101010 : 0x88000000;
+
+            Text mainText = Text.literal(getMainMessage(controller)).formatted(Formatting.GOLD, Formatting.BOLD);
+            Text subText = Text.literal(getSubMessage(controller)).formatted(Formatting.GRAY);
+            Text hintText = Text.literal(HINT).formatted(Formatting.DARK_GRAY, Formatting.ITALIC);
+            this.main = mainText.asOrderedText();
+            this.sub = subText.asOrderedText();
+            this.hint = hintText.asOrderedText();
+
+            // Center the text
+            int centerX = screenWidth / 2;
+            int centerY = screenHeight / 2;
+            this.mainX = centerX - textRenderer.getWidth(mainText) / 2;
+            this.mainY = centerY - 20;
+            this.subX = centerX - textRenderer.getWidth(subText) / 2;
+            this.subY = centerY + 5;
+            this.hintX = centerX - textRenderer.getWidth(hintText) / 2;
+            this.hintY = centerY + 30;
+        }
+
+        boolean matches(PauseController controller, int screenWidth, int screenHeight) {
+            return status == controller.getStatus()
+                    && typing == controller.isUserTyping()
+                    && hideWorld == controller.isHideWorldWhilePaused()
+                    && this.screenWidth == screenWidth
+                    && this.screenHeight == screenHeight;
+        }
+    }
 }
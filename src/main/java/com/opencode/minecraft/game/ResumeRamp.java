@@ -0,0 +1,65 @@
+package com.opencode.minecraft.game;
+
+/**
+ * Shapes how the server comes back from a pause.
+ *
+ * On the tick play resumes, the caller resets the server's tick clock, so
+ * time spent paused (or in a slow paused tick) isn't made up with a burst of
+ * back-to-back ticks. After a long pause the tick rate is also eased back
+ * up from half speed over a couple of seconds, rather than everything that
+ * was frozen waking up at full speed at once. Server thread only.
+ */
+public class ResumeRamp {
+    // Pauses shorter than this (5 seconds) resume straight at full speed
+    static final int LONG_PAUSE_TICKS = 100;
+    static final int RAMP_TICKS = 40;
+    static final float START_FRACTION = 0.5f;
+
+    private int pausedTicks = 0;
+    // Ticks since the ramp started, or -1 when not ramping
+    private int rampTick = -1;
+
+    /**
+     * Called every server tick with the pause state. Returns true on the
+     * tick play resumes, when the caller should reset the tick clock.
+     */
+    public boolean onTick(boolean paused) {
+        if (paused) {
+            pausedTicks++;
+            rampTick = -1;
+            return false;
+        }
+
+        boolean resumed = pausedTicks > 0;
+        if (resumed && pausedTicks >= LONG_PAUSE_TICKS) {
+            rampTick = 0;
+        } else if (rampTick >= 0 && ++rampTick >= RAMP_TICKS) {
+            rampTick = -1;
+        }
+        pausedTicks = 0;
+        return resumed;
+    }
+
+    /**
+     * Returns true while the tick rate is still being eased back up
+     */
+    public boolean isRamping() {
+        return rampTick >= 0;
+    }
+
+    /**
+     * Gets the fraction of full speed the server may run at right now
+     */
+    public float getRateFraction() {
+        if (rampTick < 0) return 1.0f;
+        return START_FRACTION + (1.0f - START_FRACTION) * rampTick / RAMP_TICKS;
+    }
+
+    /**
+     * Forgets any pause in progress, e.g. when the player leaves
+     */
+    public void reset() {
+        pausedTicks = 0;
+        rampTick = -1;
+    }
+}
@@ -0,0 +1,69 @@
+package com.opencode.minecraft.game;
+
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.command.argument.BlockArgumentParser;
+import net.minecraft.registry.Registries;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Comparator;
+
+/**
+ * Lets {@link WorldEditApplier} read and write blocks in a server world.
+ * Server thread only.
+ */
+public class ServerBlockAccess implements WorldEditApplier.BlockAccess<BlockState> {
+    // Keeps a chunk an edit is waiting for loading for 15 seconds, long enough to be applied
+    private static final ChunkTicketType<ChunkPos> EDIT_TICKET =
+            ChunkTicketType.create("opencode_edit", Comparator.comparingLong(ChunkPos::toLong), 300);
+
+    private final ServerWorld world;
+    private final BlockPos.Mutable pos = new BlockPos.Mutable();
+
+    public ServerBlockAccess(ServerWorld world) {
+        this.world = world;
+    }
+
+    public ServerWorld getWorld() {
+        return world;
+    }
+
+    @Override
+    public BlockState parse(String block) {
+        try {
+            return BlockArgumentParser.block(Registries.BLOCK, block, false).blockState();
+        } catch (CommandSyntaxException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isChunkReady(int x, int z) {
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        if (world.isChunkLoaded(chunkX, chunkZ)) return true;
+
+        // Load it in the background instead of blocking this tick on disk or generation
+        ChunkPos chunk = new ChunkPos(chunkX, chunkZ);
+        world.getChunkManager().addTicket(EDIT_TICKET, chunk, 0, chunk);
+        return false;
+    }
+
+    @Override
+    public BlockState getBlock(int x, int y, int z) {
+        if (world.isOutOfHeightLimit(y)) return null;
+        BlockState state = world.getBlockState(pos.set(x, y, z));
+        // Chests and the like keep contents the journal can't restore, so they're left alone
+        return state.hasBlockEntity() ? null : state;
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockState block) {
+        // Clients are told, but neighbors aren't updated, so nothing flows or falls mid-build
+        world.setBlockState(pos.set(x, y, z), block, Block.NOTIFY_LISTENERS);
+    }
+}
@@ -0,0 +1,110 @@
+package com.opencode.minecraft.game;
+
+import com.opencode.minecraft.OpenCodeMod;
+import net.minecraft.text.Text;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Formats transcript lines for chat on a worker thread.
+ *
+ * The render thread submits lines and later drains the formatted text in
+ * submission order, one chat message per transcript line. Wrapping is left
+ * to ChatHud: a line is a single paragraph, already split at newlines, so
+ * its wrap is cheap, and ChatHud can wrap it again whole when the chat
+ * width or scale changes. Pre-wrapped rows would each take one of ChatHud's
+ * history slots and turn ragged on such a re-wrap.
+ *
+ * Recently formatted lines are cached, so repeated lines (catch-up replays,
+ * status lines) skip the markdown pass.
+ */
+public class TextLayoutWorker {
+    private static final int CACHE_SIZE = 256;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OpenCode Layout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Render thread only: submitted jobs, oldest first
+    private final ArrayDeque<Job> inFlight = new ArrayDeque<>();
+
+    // Worker thread only: recently formatted lines
+    private final Map<String, Text> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Text> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Queues a line for formatting. Must be called from the render thread.
+     */
+    public void submit(TranscriptLine line) {
+        Job job = new Job(line);
+        inFlight.add(job);
+        executor.execute(job);
+    }
+
+    /**
+     * Delivers every finished line as one message, in submission order.
+     * Stops at the first line that is still being formatted.
+     * Must be called from the render thread.
+     */
+    public void drain(Consumer<Text> messageSink) {
+        Job head;
+        while ((head = inFlight.peek()) != null && head.text != null) {
+            inFlight.poll();
+            messageSink.accept(head.text);
+        }
+    }
+
+    /**
+     * Returns true if no submitted lines are waiting to be drained
+     */
+    public boolean isIdle() {
+        return inFlight.isEmpty();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Text layout(TranscriptLine line) {
+        String cacheId = line.getKind().ordinal() + ":" + line.getText();
+        Text cached = cache.get(cacheId);
+        if (cached != null) {
+            return cached;
+        }
+        Text formatted = MessageRenderer.format(line);
+        cache.put(cacheId, formatted);
+        return formatted;
+    }
+
+    private final class Job implements Runnable {
+        final TranscriptLine line;
+
+        // Published by the worker, read by the render thread
+        volatile Text text;
+
+        Job(TranscriptLine line) {
+            this.line = line;
+        }
+
+        @Override
+        public void run() {
+            try {
+                text = layout(line);
+            } catch (Exception e) {
+                OpenCodeMod.LOGGER.warn("Failed to lay out line: {}", e.getMessage());
+                text = Text.literal(line.getText());
+            }
+        }
+    }
+}
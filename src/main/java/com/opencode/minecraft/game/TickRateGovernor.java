@@ -0,0 +1,105 @@
+package com.opencode.minecraft.game;
+
+import com.opencode.minecraft.client.session.SessionStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scales the game's tick rate with how fast the agent is working, instead of
+ * switching between frozen and full speed.
+ *
+ * Token throughput is measured over short windows and smoothed with an
+ * exponentially weighted moving average. The target rate is smoothed the
+ * same way and only republished once it has moved by a whole tick per
+ * second, so bursty output doesn't make the world speed up and slow down
+ * several times a second.
+ */
+public class TickRateGovernor {
+    // Vanilla tick rate, used while generating at or above the reference throughput
+    public static final float FULL_RATE = 20.0f;
+    // Slow motion while the agent is working but not outputting
+    static final float BUSY_RATE = 5.0f;
+    // Slowest the world is ever run while not paused
+    static final float MIN_RATE = 2.0f;
+
+    static final long WINDOW_MS = 500;
+    // Weight of each new window; lower is smoother but slower to react
+    private static final float SMOOTHING = 0.3f;
+
+    private final AtomicInteger deltas = new AtomicInteger();
+    private volatile float referenceTokensPerSecond;
+
+    // Game thread only
+    private long windowStart = -1;
+    private float tokensPerSecond = 0;
+    private float smoothedRate = FULL_RATE;
+
+    // Read by the server thread
+    private volatile float targetRate = FULL_RATE;
+
+    public TickRateGovernor(float referenceTokensPerSecond) {
+        setReferenceTokensPerSecond(referenceTokensPerSecond);
+    }
+
+    /**
+     * Counts one streamed delta; called from the event thread
+     */
+    public void onDelta() {
+        deltas.incrementAndGet();
+    }
+
+    /**
+     * Closes the current window if it is over and updates the target rate.
+     * Called every client tick; cheap while a window is still open.
+     */
+    public void update(SessionStatus status, long now) {
+        if (windowStart < 0) {
+            windowStart = now;
+            // Deltas counted before the first window would inflate its sample
+            deltas.set(0);
+            return;
+        }
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_MS) return;
+        windowStart = now;
+
+        float sample = deltas.getAndSet(0) * 1000f / elapsed;
+        tokensPerSecond += SMOOTHING * (sample - tokensPerSecond);
+
+        float desired = switch (status) {
+            case GENERATING -> clamp(FULL_RATE * tokensPerSecond / referenceTokensPerSecond);
+            case BUSY, RETRY -> BUSY_RATE;
+            case IDLE, DISCONNECTED -> MIN_RATE;
+        };
+        smoothedRate += SMOOTHING * (desired - smoothedRate);
+
+        if (Math.abs(smoothedRate - targetRate) >= 1.0f) {
+            targetRate = Math.round(smoothedRate);
+        }
+    }
+
+    /**
+     * Gets the tick rate the world should run at
+     */
+    public float getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * Gets the smoothed token throughput, in deltas per second
+     */
+    public float getTokensPerSecond() {
+        return tokensPerSecond;
+    }
+
+    /**
+     * Sets the throughput at which the world runs at full speed
+     */
+    public void setReferenceTokensPerSecond(float referenceTokensPerSecond) {
+        this.referenceTokensPerSecond = Math.max(1.0f, referenceTokensPerSecond);
+    }
+
+    private static float clamp(float rate) {
+        return Math.max(MIN_RATE, Math.min(FULL_RATE, rate));
+    }
+}
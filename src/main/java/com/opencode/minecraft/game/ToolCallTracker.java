@@ -0,0 +1,133 @@
+package com.opencode.minecraft.game;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collapses the lifecycle updates of each tool call into a single entry.
+ *
+ * The server sends a part update for every pending -> running -> completed
+ * transition (plus intermediate progress). Calls are keyed by their call ID
+ * and updated in place; only the final state is reported back so it can be
+ * written to chat once, with its duration.
+ *
+ * Accessed from the game thread only.
+ */
+public class ToolCallTracker {
+    // Remember this many finished calls so late duplicate updates are ignored
+    private static final int FINISHED_HISTORY = 256;
+
+    private final Map<String, ToolCall> active = new LinkedHashMap<>();
+    private final Set<String> finished = Collections.newSetFromMap(new LinkedHashMap<>(FINISHED_HISTORY, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > FINISHED_HISTORY;
+        }
+    });
+    private boolean dirty = false;
+
+    /**
+     * Applies a tool part update.
+     *
+     * @param startTime server-reported start time in ms, or 0 if unknown
+     * @param endTime server-reported end time in ms, or 0 if unknown
+     * @return the call if this update finished it, otherwise null
+     */
+    public ToolCall update(String callId, String toolName, String state, long startTime, long endTime, long now) {
+        if (callId == null || finished.contains(callId)) return null;
+
+        ToolCall call = active.get(callId);
+        if (call == null) {
+            call = new ToolCall(callId, toolName, startTime > 0 ? startTime : now);
+            active.put(callId, call);
+        } else if (startTime > 0) {
+            call.startedAt = startTime;
+        }
+
+        if (!state.equals(call.state)) {
+            call.state = state;
+            dirty = true;
+        }
+
+        if (isTerminal(state)) {
+            call.endedAt = endTime > 0 ? endTime : now;
+            active.remove(callId);
+            finished.add(callId);
+            dirty = true;
+            return call;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the calls that have not finished yet, oldest first
+     */
+    public Collection<ToolCall> getActive() {
+        return Collections.unmodifiableCollection(active.values());
+    }
+
+    /**
+     * Returns true once after any visible change to the active calls
+     */
+    public boolean consumeDirty() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
+    }
+
+    /**
+     * Forgets all calls, e.g. when switching sessions
+     */
+    public void clear() {
+        active.clear();
+        finished.clear();
+        dirty = true;
+    }
+
+    /**
+     * Returns true if the state is final for a tool call
+     */
+    public static boolean isTerminal(String state) {
+        return "completed".equals(state) || "error".equals(state) || "failed".equals(state);
+    }
+
+    /**
+     * A single tool invocation and its latest known state
+     */
+    public static final class ToolCall {
+        private final String callId;
+        private final String toolName;
+        private String state = "";
+        private long startedAt;
+        private long endedAt;
+
+        ToolCall(String callId, String toolName, long startedAt) {
+            this.callId = callId;
+            this.toolName = toolName;
+            this.startedAt = startedAt;
+        }
+
+        public String getCallId() {
+            return callId;
+        }
+
+        public String getToolName() {
+            return toolName;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        /**
+         * Gets how long the call ran, or has been running so far
+         */
+        public long getDurationMs(long now) {
+            long end = endedAt > 0 ? endedAt : now;
+            return Math.max(0, end - startedAt);
+        }
+    }
+}
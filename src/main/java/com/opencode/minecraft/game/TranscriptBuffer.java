@@ -0,0 +1,250 @@
+package com.opencode.minecraft.game;
+
+import com.opencode.minecraft.OpenCodeMod;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds every line rendered for the current session, unlike ChatHud
+ * which only keeps the most recent messages.
+ *
+ * When a journal is attached, lines from earlier runs are read back from
+ * it lazily on access instead of being loaded into memory, and every new
+ * line is appended to it.
+ *
+ * Lines added during this run are kept on the heap up to a byte budget;
+ * older ones are moved to an off-heap spill and decoded only when read.
+ * If the spill fills up too, its oldest lines are served from the journal
+ * (or shown as dropped when journaling is off), so memory use stays flat
+ * however long the session runs.
+ *
+ * History fetched from the server can be prepended in pages ahead of all
+ * of that. It is neither journaled nor evicted; it only grows as far as the
+ * user scrolls back.
+ *
+ * Accessed from the game thread only.
+ */
+public class TranscriptBuffer {
+    // Rough per-line heap cost: object headers, the String and its array
+    private static final int LINE_OVERHEAD_BYTES = 64;
+
+    private static final TranscriptLine DROPPED =
+            new TranscriptLine(TranscriptLine.Kind.SYSTEM, "(line no longer in memory)");
+
+    private final long heapBudgetBytes;
+    private final long spillBudgetBytes;
+
+    // Newest lines of this run; heapStart is the run position of the first one
+    private final ArrayList<TranscriptLine> heapLines = new ArrayList<>();
+    private int heapStart = 0;
+    private long heapBytes = 0;
+    private TranscriptSpill spill;
+
+    // Prepended server history, newest first so prepending is an append
+    private final ArrayList<TranscriptLine> history = new ArrayList<>();
+
+    // Lines that were already in the journal when it was attached
+    private TranscriptJournal journal;
+    private int restoredCount = 0;
+    // Leading lines of this run already dropped from the spill when the journal was attached;
+    // they were never journaled, so the journal runs that many positions behind
+    private int unjournaledLines = 0;
+
+    // Bumped whenever existing lines are removed, so views can drop stale layouts.
+    // Appends leave it unchanged since they never affect lines already laid out.
+    private int generation = 0;
+
+    public TranscriptBuffer(long heapBudgetBytes, long spillBudgetBytes) {
+        this.heapBudgetBytes = heapBudgetBytes;
+        this.spillBudgetBytes = spillBudgetBytes;
+        this.spill = new TranscriptSpill(spillBudgetBytes);
+    }
+
+    /**
+     * Appends a line to the end of the transcript
+     */
+    public void append(TranscriptLine line) {
+        heapLines.add(line);
+        heapBytes += estimateBytes(line);
+        if (journal != null) {
+            journal.append(line);
+        }
+
+        if (heapBytes > heapBudgetBytes) {
+            evict();
+        }
+    }
+
+    /**
+     * Gets the line at the given index (0 = oldest)
+     */
+    public TranscriptLine get(int index) {
+        int historyCount = history.size();
+        if (index < historyCount) {
+            return history.get(historyCount - 1 - index);
+        }
+        index -= historyCount;
+
+        if (index < restoredCount) {
+            return readJournal(index);
+        }
+
+        int position = index - restoredCount;
+        if (position >= heapStart) {
+            return heapLines.get(position - heapStart);
+        }
+
+        TranscriptLine spilled = spill.get(position);
+        if (spilled != null) {
+            return spilled;
+        }
+
+        // Recycled out of the spill; the journal holds every line since it was attached in order
+        int journalIndex = index - unjournaledLines;
+        if (journal != null && position >= unjournaledLines && journalIndex < journal.size()) {
+            return readJournal(journalIndex);
+        }
+        return DROPPED;
+    }
+
+    /**
+     * Gets the number of lines in the transcript
+     */
+    public int size() {
+        return history.size() + restoredCount + heapStart + heapLines.size();
+    }
+
+    /**
+     * Inserts older lines ahead of everything else, in chronological order.
+     * Existing lines keep their content but move down by lines.size().
+     */
+    public void prependHistory(List<TranscriptLine> lines) {
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            history.add(lines.get(i));
+        }
+    }
+
+    /**
+     * Gets the number of lines prepended so far, so views can shift their
+     * position when it grows
+     */
+    public int getPrependedCount() {
+        return history.size();
+    }
+
+    /**
+     * Gets the approximate heap bytes held by in-memory lines
+     */
+    public long getHeapBytes() {
+        return heapBytes;
+    }
+
+    /**
+     * Gets the off-heap bytes held by spilled lines
+     */
+    public long getSpillBytes() {
+        return spill.getAllocatedBytes();
+    }
+
+    /**
+     * Attaches the session journal, e.g. once it has been opened in the
+     * background. Lines already in it become readable without being loaded
+     * and go ahead of any added since the transcript was cleared, which are
+     * journaled now.
+     */
+    public void attachJournal(TranscriptJournal journal) {
+        if (this.journal != null) {
+            this.journal.close();
+        }
+        this.journal = journal;
+        this.restoredCount = journal != null ? journal.size() : 0;
+        this.unjournaledLines = 0;
+        if (journal == null) return;
+
+        // Lines already dropped can't be journaled; the placeholder must never reach the disk
+        unjournaledLines = spill.getDroppedLines();
+        for (int position = unjournaledLines; position < heapStart + heapLines.size(); position++) {
+            journal.append(position >= heapStart ? heapLines.get(position - heapStart) : spill.get(position));
+        }
+        if (restoredCount > 0) {
+            // Existing lines moved down behind the restored ones
+            generation++;
+        }
+    }
+
+    /**
+     * Gets the number of lines read back from the attached journal
+     */
+    public int getRestoredCount() {
+        return restoredCount;
+    }
+
+    /**
+     * Removes all lines like {@link #clear()}, but hands back the attached
+     * journal instead of closing it, so it can be closed off the game thread
+     */
+    public TranscriptJournal detachJournal() {
+        TranscriptJournal detached = journal;
+        journal = null;
+        clear();
+        return detached;
+    }
+
+    /**
+     * Removes all lines, e.g. when switching sessions.
+     * Closes the attached journal, if any.
+     */
+    public void clear() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        restoredCount = 0;
+        unjournaledLines = 0;
+        history.clear();
+        heapLines.clear();
+        heapStart = 0;
+        heapBytes = 0;
+        spill = new TranscriptSpill(spillBudgetBytes);
+        generation++;
+    }
+
+    /**
+     * Gets the generation, incremented whenever existing lines are removed
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Moves the oldest lines to the spill until the heap is at half its budget.
+     * Evicting in bulk keeps the list shift cost amortized.
+     */
+    private void evict() {
+        long target = heapBudgetBytes / 2;
+        int evicted = 0;
+        while (evicted < heapLines.size() - 1 && heapBytes > target) {
+            TranscriptLine line = heapLines.get(evicted);
+            spill.add(line);
+            heapBytes -= estimateBytes(line);
+            evicted++;
+        }
+        heapLines.subList(0, evicted).clear();
+        heapStart += evicted;
+    }
+
+    private TranscriptLine readJournal(int index) {
+        try {
+            return journal.read(index);
+        } catch (IOException e) {
+            OpenCodeMod.LOGGER.warn("Failed to read transcript line {}: {}", index, e.getMessage());
+            return new TranscriptLine(TranscriptLine.Kind.ERROR, "(unreadable line)");
+        }
+    }
+
+    private static long estimateBytes(TranscriptLine line) {
+        return LINE_OVERHEAD_BYTES + line.getText().length() * 2L;
+    }
+}
@@ -0,0 +1,302 @@
+package com.opencode.minecraft.game;
+
+import com.opencode.minecraft.OpenCodeMod;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only on-disk journal of a session's transcript.
+ *
+ * Lines are written by a background thread in batches, one FileChannel
+ * write per batch. A memory-mapped index of record offsets sits next to the
+ * journal so any line can be read back with a single positional read,
+ * without loading the rest of the transcript into the heap. The index is
+ * only a cache: on open it is rebuilt from the journal's own record headers,
+ * so a missing or stale index after a crash loses nothing but a torn tail.
+ *
+ * Journal record: [int length][byte kind][UTF-8 text], length covers kind + text.
+ * Index: [long count][long offset]*, offsets of each record in the journal.
+ */
+public class TranscriptJournal {
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private static final int RECORD_HEADER = Integer.BYTES + 1;
+    private static final int INDEX_HEADER = Long.BYTES;
+    private static final int INITIAL_INDEX_CAPACITY = 16 * 1024;
+    // Journal bytes read at a time while scanning record headers on open
+    private static final int SCAN_BUFFER = 64 * 1024;
+
+    // Upper bound on lines gathered into one write
+    private static final int MAX_BATCH = 1024;
+
+    private static final TranscriptLine.Kind[] KINDS = TranscriptLine.Kind.values();
+    private static final TranscriptLine STOP = new TranscriptLine(TranscriptLine.Kind.SYSTEM, "");
+
+    private final String sessionId;
+    private final FileChannel journal;
+    private final FileChannel index;
+    private final BlockingQueue<TranscriptLine> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    // Written by the writer thread; the volatile count publishes both
+    private volatile MappedByteBuffer indexMap;
+    private volatile int committed;
+    private long journalEnd;
+
+    private TranscriptJournal(String sessionId, FileChannel journal, FileChannel index) throws IOException {
+        this.sessionId = sessionId;
+        this.journal = journal;
+        this.index = index;
+        recover();
+
+        this.writer = new Thread(this::runWriter, "OpenCode Journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens (or creates) the journal for a session in the given directory
+     */
+    public static TranscriptJournal open(Path directory, String sessionId) throws IOException {
+        Files.createDirectories(directory);
+        String name = sessionId.replaceAll("[^A-Za-z0-9_-]", "_");
+
+        FileChannel journal = FileChannel.open(directory.resolve(name + JOURNAL_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileChannel index = FileChannel.open(directory.resolve(name + INDEX_SUFFIX),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new TranscriptJournal(sessionId, journal, index);
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Queues a line to be written. Never blocks on disk I/O.
+     */
+    public void append(TranscriptLine line) {
+        queue.offer(line);
+    }
+
+    /**
+     * Gets the number of lines durably written so far
+     */
+    public int size() {
+        return committed;
+    }
+
+    /**
+     * Reads a written line by index. Safe to call from any thread.
+     */
+    public TranscriptLine read(int lineIndex) throws IOException {
+        if (lineIndex < 0 || lineIndex >= committed) {
+            throw new IndexOutOfBoundsException("Line " + lineIndex + " of " + committed);
+        }
+
+        long offset = indexMap.getLong(slot(lineIndex));
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        readFully(header, offset);
+        int length = header.getInt(0);
+        TranscriptLine.Kind kind = KINDS[header.get(Integer.BYTES)];
+
+        ByteBuffer body = ByteBuffer.allocate(length - 1);
+        readFully(body, offset + RECORD_HEADER);
+        return new TranscriptLine(kind, new String(body.array(), StandardCharsets.UTF_8));
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Writes out everything queued so far and closes the files
+     */
+    public void close() {
+        queue.offer(STOP);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+            index.close();
+        } catch (IOException e) {
+            OpenCodeMod.LOGGER.warn("Failed to close transcript journal: {}", e.getMessage());
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = journal.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of transcript journal");
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index by walking the journal's records from the start,
+     * stopping at the first one that is incomplete or damaged (e.g. a crash
+     * in the middle of a write) and truncating the journal there
+     */
+    private void recover() throws IOException {
+        long journalSize = journal.size();
+        long[] offsets = new long[1024];
+        int count = 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+        buffer.limit(0);
+        long bufferStart = 0;
+        long position = 0;
+        while (position + RECORD_HEADER <= journalSize) {
+            if (position + RECORD_HEADER > bufferStart + buffer.limit()) {
+                bufferStart = position;
+                fill(buffer, bufferStart, journalSize);
+            }
+            int at = (int) (position - bufferStart);
+            int length = buffer.getInt(at);
+            int kind = buffer.get(at + Integer.BYTES);
+            long end = position + RECORD_HEADER + (long) length - 1;
+            if (length < 1 || kind < 0 || kind >= KINDS.length || end > journalSize) break;
+
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            offsets[count++] = position;
+            position = end;
+        }
+        journalEnd = position;
+
+        if (journalEnd < journalSize) {
+            OpenCodeMod.LOGGER.warn("Dropping {} bytes of torn transcript journal for {}",
+                    journalSize - journalEnd, sessionId);
+            journal.truncate(journalEnd);
+        }
+
+        int capacity = INITIAL_INDEX_CAPACITY;
+        while (capacity < count) {
+            capacity *= 2;
+        }
+        mapIndex(capacity);
+        for (int i = 0; i < count; i++) {
+            indexMap.putLong(slot(i), offsets[i]);
+        }
+        indexMap.putLong(0, count);
+        committed = count;
+    }
+
+    /**
+     * Reads as much of the journal from position as fits, flipped for reading
+     */
+    private void fill(ByteBuffer buffer, long position, long journalSize) throws IOException {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), journalSize - position));
+        readFully(buffer, position);
+        buffer.flip();
+    }
+
+    private void mapIndex(int capacity) throws IOException {
+        indexMap = index.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) capacity * Long.BYTES);
+    }
+
+    private static int slot(int lineIndex) {
+        return INDEX_HEADER + lineIndex * Long.BYTES;
+    }
+
+    private int indexCapacity() {
+        return (indexMap.capacity() - INDEX_HEADER) / Long.BYTES;
+    }
+
+    private void runWriter() {
+        List<TranscriptLine> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+
+            int stop = batch.indexOf(STOP);
+            if (stop >= 0) {
+                batch.subList(stop, batch.size()).clear();
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                try {
+                    writeBatch(batch);
+                } catch (IOException e) {
+                    OpenCodeMod.LOGGER.error("Failed to write transcript journal for {}", sessionId, e);
+                }
+                batch.clear();
+            }
+        }
+
+        try {
+            journal.force(false);
+            indexMap.force();
+        } catch (IOException e) {
+            OpenCodeMod.LOGGER.warn("Failed to flush transcript journal: {}", e.getMessage());
+        }
+    }
+
+    private void writeBatch(List<TranscriptLine> batch) throws IOException {
+        long[] offsets = new long[batch.size()];
+        List<byte[]> encoded = new ArrayList<>(batch.size());
+        int total = 0;
+        for (TranscriptLine line : batch) {
+            byte[] text = line.getText().getBytes(StandardCharsets.UTF_8);
+            encoded.add(text);
+            total += RECORD_HEADER + text.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(total);
+        long position = journalEnd;
+        for (int i = 0; i < batch.size(); i++) {
+            byte[] text = encoded.get(i);
+            offsets[i] = position;
+            buffer.putInt(text.length + 1);
+            buffer.put((byte) batch.get(i).getKind().ordinal());
+            buffer.put(text);
+            position += RECORD_HEADER + text.length;
+        }
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            journal.write(buffer, journalEnd + buffer.position());
+        }
+        journalEnd = position;
+
+        // Index entries only after the data they point to is written
+        int count = committed;
+        while (count + offsets.length > indexCapacity()) {
+            mapIndex(indexCapacity() * 2);
+        }
+        MappedByteBuffer map = indexMap;
+        for (int i = 0; i < offsets.length; i++) {
+            map.putLong(slot(count + i), offsets[i]);
+        }
+        map.putLong(0, count + offsets.length);
+        committed = count + offsets.length;
+    }
+}
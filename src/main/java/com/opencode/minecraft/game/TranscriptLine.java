@@ -0,0 +1,41 @@
+package com.opencode.minecraft.game;
+
+/**
+ * A single rendered line of the session transcript.
+ *
+ * Lines keep their raw source text and are only converted to Minecraft
+ * {@code Text} when they are drawn, which keeps the transcript compact.
+ */
+public final class TranscriptLine {
+    /**
+     * Who produced the line, which determines its prefix and colors
+     */
+    public enum Kind {
+        USER,
+        ASSISTANT,
+        SYSTEM,
+        ERROR,
+        TOOL
+    }
+
+    private final Kind kind;
+    private final String text;
+
+    public TranscriptLine(Kind kind, String text) {
+        this.kind = kind;
+        this.text = text;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TranscriptLine[%s: %s]", kind, text);
+    }
+}
@@ -0,0 +1,260 @@
+package com.opencode.minecraft.game;
+
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.gui.screen.Screen;
+import net.minecraft.text.OrderedText;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scrollable view of the full session transcript.
+ *
+ * The view is virtualized: the scroll position is anchored to a transcript
+ * line instead of a pixel offset, so only the lines that are actually on
+ * screen are ever wrapped and drawn. Wrapped lines are kept in a small
+ * LRU cache that is dropped when the width changes.
+ *
+ * Reaching the top asks for older history, which is prepended to the
+ * transcript; the anchor moves down with it so the view doesn't jump.
+ */
+public class TranscriptScreen extends Screen {
+    private static final int MARGIN = 8;
+    private static final int HEADER_HEIGHT = 20;
+    private static final int SCROLLBAR_WIDTH = 4;
+    private static final int SCROLL_ROWS = 3;
+    private static final int WRAP_CACHE_SIZE = 512;
+
+    private final TranscriptBuffer transcript;
+    private final Runnable loadOlder;
+
+    // Wrapped rows per transcript line, only for lines near the viewport
+    private final Map<Integer, List<OrderedText>> wrapCache =
+            new LinkedHashMap<>(WRAP_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<OrderedText>> eldest) {
+                    return size() > WRAP_CACHE_SIZE;
+                }
+            };
+    private int wrapWidth = -1;
+    private int wrapGeneration;
+    private int prependedSeen;
+
+    // Scroll position: first visible row is row anchorRow of line anchorLine
+    private int anchorLine = 0;
+    private int anchorRow = 0;
+    private boolean followTail = true;
+
+    public TranscriptScreen(TranscriptBuffer transcript, Runnable loadOlder) {
+        super(Text.literal("OpenCode Transcript"));
+        this.transcript = transcript;
+        this.loadOlder = loadOlder;
+        this.wrapGeneration = transcript.getGeneration();
+        this.prependedSeen = transcript.getPrependedCount();
+    }
+
+    @Override
+    public boolean shouldPause() {
+        return false;
+    }
+
+    @Override
+    public void render(DrawContext context, int mouseX, int mouseY, float delta) {
+        super.render(context, mouseX, mouseY, delta);
+
+        context.drawCenteredTextWithShadow(textRenderer, title, width / 2, 6, 0xFFFFFF);
+
+        int size = transcript.size();
+        if (size == 0) {
+            context.drawCenteredTextWithShadow(textRenderer,
+                    Text.literal("Nothing here yet").formatted(Formatting.GRAY),
+                    width / 2, height / 2, 0xAAAAAA);
+            return;
+        }
+
+        validateCache();
+
+        int rowHeight = rowHeight();
+        int top = HEADER_HEIGHT;
+        int visibleRows = visibleRows();
+
+        if (followTail) {
+            anchorToTail(visibleRows);
+        }
+
+        // Walk forward from the anchor, wrapping only what ends up on screen
+        int y = top;
+        int rowsDrawn = 0;
+        int line = anchorLine;
+        int row = anchorRow;
+        while (line < size && rowsDrawn < visibleRows) {
+            List<OrderedText> rows = wrapped(line);
+            for (; row < rows.size() && rowsDrawn < visibleRows; row++) {
+                context.drawTextWithShadow(textRenderer, rows.get(row), MARGIN, y, 0xFFFFFF);
+                y += rowHeight;
+                rowsDrawn++;
+            }
+            line++;
+            row = 0;
+        }
+
+        // Reached the end before filling the viewport: snap back to the tail
+        if (!followTail && line >= size && rowsDrawn < visibleRows) {
+            followTail = true;
+        }
+
+        drawScrollbar(context, size, top, visibleRows * rowHeight);
+
+        // Top of what's loaded is on screen; the loader ignores repeat requests
+        if (anchorLine == 0 && anchorRow == 0) {
+            loadOlder.run();
+        }
+    }
+
+    private void drawScrollbar(DrawContext context, int size, int top, int trackHeight) {
+        int x = width - MARGIN / 2 - SCROLLBAR_WIDTH;
+        context.fill(x, top, x + SCROLLBAR_WIDTH, top + trackHeight, 0x40FFFFFF);
+
+        // Position by line index: exact row totals would require wrapping everything
+        int thumbHeight = Math.max(8, trackHeight * Math.min(visibleRows(), size) / Math.max(size, 1));
+        int thumbTop = followTail
+                ? top + trackHeight - thumbHeight
+                : top + (int) ((long) (trackHeight - thumbHeight) * anchorLine / Math.max(size - 1, 1));
+        context.fill(x, thumbTop, x + SCROLLBAR_WIDTH, thumbTop + thumbHeight, 0xC0FFFFFF);
+    }
+
+    @Override
+    public boolean mouseScrolled(double mouseX, double mouseY, double horizontalAmount, double verticalAmount) {
+        if (verticalAmount > 0) {
+            scrollUp(SCROLL_ROWS);
+        } else if (verticalAmount < 0) {
+            scrollDown(SCROLL_ROWS);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean keyPressed(int keyCode, int scanCode, int modifiers) {
+        switch (keyCode) {
+            case GLFW.GLFW_KEY_UP -> scrollUp(1);
+            case GLFW.GLFW_KEY_DOWN -> scrollDown(1);
+            case GLFW.GLFW_KEY_PAGE_UP -> scrollUp(visibleRows() - 1);
+            case GLFW.GLFW_KEY_PAGE_DOWN -> scrollDown(visibleRows() - 1);
+            case GLFW.GLFW_KEY_HOME -> {
+                followTail = false;
+                anchorLine = 0;
+                anchorRow = 0;
+            }
+            case GLFW.GLFW_KEY_END -> followTail = true;
+            default -> {
+                return super.keyPressed(keyCode, scanCode, modifiers);
+            }
+        }
+        return true;
+    }
+
+    private void scrollUp(int rows) {
+        if (transcript.size() == 0) return;
+        validateCache();
+        if (followTail) {
+            anchorToTail(visibleRows());
+            followTail = false;
+        }
+
+        anchorRow -= rows;
+        while (anchorRow < 0 && anchorLine > 0) {
+            anchorLine--;
+            anchorRow += wrapped(anchorLine).size();
+        }
+        if (anchorRow < 0) {
+            anchorRow = 0;
+        }
+    }
+
+    private void scrollDown(int rows) {
+        if (followTail || transcript.size() == 0) return;
+        validateCache();
+
+        anchorRow += rows;
+        int last = transcript.size() - 1;
+        while (anchorLine < last && anchorRow >= wrapped(anchorLine).size()) {
+            anchorRow -= wrapped(anchorLine).size();
+            anchorLine++;
+        }
+        // render() snaps back to the tail once the viewport runs past the end
+    }
+
+    /**
+     * Positions the anchor so the last line ends at the bottom of the viewport
+     */
+    private void anchorToTail(int visibleRows) {
+        int remaining = visibleRows;
+        int line = transcript.size() - 1;
+        while (line >= 0) {
+            int rows = wrapped(line).size();
+            if (rows >= remaining) {
+                anchorLine = line;
+                anchorRow = rows - remaining;
+                return;
+            }
+            remaining -= rows;
+            line--;
+        }
+        anchorLine = 0;
+        anchorRow = 0;
+    }
+
+    private List<OrderedText> wrapped(int line) {
+        List<OrderedText> rows = wrapCache.get(line);
+        if (rows == null) {
+            rows = textRenderer.wrapLines(MessageRenderer.format(transcript.get(line)), wrapWidth);
+            if (rows.isEmpty()) {
+                rows = List.of(OrderedText.EMPTY);
+            }
+            wrapCache.put(line, rows);
+        }
+        return rows;
+    }
+
+    /**
+     * Drops wrapped rows when the width changes or the transcript is replaced
+     */
+    private void validateCache() {
+        int textWidth = width - MARGIN * 2 - SCROLLBAR_WIDTH;
+        if (textWidth != wrapWidth) {
+            wrapCache.clear();
+            wrapWidth = textWidth;
+        }
+
+        // Appends never change existing lines, only removals do
+        int generation = transcript.getGeneration();
+        if (generation != wrapGeneration) {
+            wrapCache.clear();
+            anchorLine = 0;
+            anchorRow = 0;
+            followTail = true;
+            wrapGeneration = generation;
+            prependedSeen = transcript.getPrependedCount();
+        }
+
+        // Older lines were inserted ahead of the view: follow the line we're on
+        int prepended = transcript.getPrependedCount();
+        if (prepended != prependedSeen) {
+            wrapCache.clear();
+            anchorLine += prepended - prependedSeen;
+            prependedSeen = prepended;
+        }
+    }
+
+    private int rowHeight() {
+        return textRenderer.fontHeight + 1;
+    }
+
+    private int visibleRows() {
+        return Math.max(1, (height - HEADER_HEIGHT - MARGIN) / rowHeight());
+    }
+}
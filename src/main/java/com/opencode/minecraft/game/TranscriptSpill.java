@@ -0,0 +1,149 @@
+package com.opencode.minecraft.game;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Off-heap storage for transcript lines evicted from the heap.
+ *
+ * Lines are packed as [byte kind][UTF-8 text] into fixed-size direct
+ * buffers and only decoded when read. Styling is not stored separately:
+ * it is fully determined by the line kind and the markdown in the text.
+ * Once the byte budget is reached the oldest chunk is recycled, so
+ * off-heap use is bounded as well.
+ *
+ * Line numbers are positions in the stream of lines ever added.
+ * Accessed from the game thread only.
+ */
+class TranscriptSpill {
+    private static final int CHUNK_BYTES = 256 * 1024;
+    private static final TranscriptLine.Kind[] KINDS = TranscriptLine.Kind.values();
+
+    private final long maxBytes;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private long allocatedBytes = 0;
+
+    // Number of lines recycled away (never readable again from here)
+    private int droppedLines = 0;
+    private int totalLines = 0;
+
+    TranscriptSpill(long maxBytes) {
+        this.maxBytes = Math.max(maxBytes, CHUNK_BYTES);
+    }
+
+    /**
+     * Stores a line. May drop the oldest chunk to stay within budget.
+     */
+    void add(TranscriptLine line) {
+        byte[] text = line.getText().getBytes(StandardCharsets.UTF_8);
+        int recordSize = 1 + text.length;
+
+        Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || chunk.data.remaining() < recordSize) {
+            chunk = newChunk(recordSize);
+        }
+
+        chunk.append((byte) line.getKind().ordinal(), text);
+        totalLines++;
+    }
+
+    /**
+     * Reads a line by its stream position, or null if it was dropped
+     */
+    TranscriptLine get(int line) {
+        if (line < droppedLines || line >= totalLines) return null;
+
+        // Chunks are ordered by first line; binary search for the owner
+        int lo = 0;
+        int hi = chunks.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (chunks.get(mid).firstLine <= line) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return chunks.get(lo).read(line - chunks.get(lo).firstLine);
+    }
+
+    /**
+     * Gets the number of leading lines that have been dropped for good
+     */
+    int getDroppedLines() {
+        return droppedLines;
+    }
+
+    /**
+     * Gets the off-heap bytes currently allocated
+     */
+    long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private Chunk newChunk(int minSize) {
+        int size = Math.max(minSize, CHUNK_BYTES);
+
+        Chunk recycled = null;
+        while (!chunks.isEmpty() && allocatedBytes + size > maxBytes) {
+            Chunk oldest = chunks.remove(0);
+            droppedLines += oldest.lines;
+            allocatedBytes -= oldest.data.capacity();
+            if (recycled == null && oldest.data.capacity() == size) {
+                // Reuse the buffer instead of waiting for the GC to free it
+                recycled = oldest;
+            }
+        }
+
+        Chunk chunk;
+        if (recycled != null) {
+            recycled.reset(totalLines);
+            chunk = recycled;
+        } else {
+            chunk = new Chunk(ByteBuffer.allocateDirect(size), totalLines);
+        }
+        allocatedBytes += size;
+        chunks.add(chunk);
+        return chunk;
+    }
+
+    private static final class Chunk {
+        final ByteBuffer data;
+        int firstLine;
+        int lines = 0;
+        int[] offsets = new int[256];
+
+        Chunk(ByteBuffer data, int firstLine) {
+            this.data = data;
+            this.firstLine = firstLine;
+        }
+
+        void reset(int firstLine) {
+            data.clear();
+            this.firstLine = firstLine;
+            this.lines = 0;
+        }
+
+        void append(byte kind, byte[] text) {
+            if (lines + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[lines] = data.position();
+            data.put(kind);
+            data.put(text);
+            lines++;
+            offsets[lines] = data.position();
+        }
+
+        TranscriptLine read(int index) {
+            int start = offsets[index];
+            int end = offsets[index + 1];
+            byte[] text = new byte[end - start - 1];
+            data.get(start + 1, text);
+            return new TranscriptLine(KINDS[data.get(start)], new String(text, StandardCharsets.UTF_8));
+        }
+    }
+}
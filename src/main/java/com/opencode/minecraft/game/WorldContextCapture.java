@@ -0,0 +1,163 @@
+package com.opencode.minecraft.game;
+
+import com.opencode.minecraft.OpenCodeMod;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Snapshots the blocks around the player for the agent.
+ *
+ * Blocks are copied out of chunk sections on the game thread a few sections
+ * per tick, so even a large box never stalls a frame, then encoded into a
+ * {@link BlockSnapshot} on a worker thread.
+ */
+public class WorldContextCapture {
+    public static final int MAX_RADIUS = 48;
+    private static final int SECTIONS_PER_TICK = 8;
+
+    private final ExecutorService encoder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OpenCode World Snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Game thread only
+    private Job job;
+
+    /**
+     * Starts snapshotting a cube of the given radius around the player.
+     * If a snapshot is already being taken, completes with that one instead.
+     * Must be called on the game thread; completes with the encoded snapshot.
+     */
+    public CompletableFuture<String> capture(int radius) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client.world == null || client.player == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Not in a world"));
+        }
+        if (job != null) {
+            return job.result;
+        }
+
+        job = new Job(client.world, client.player.getBlockPos(), Math.min(Math.max(1, radius), MAX_RADIUS));
+        return job.result;
+    }
+
+    /**
+     * Copies the next few sections of the snapshot in progress; called every client tick
+     */
+    public void tick() {
+        Job current = job;
+        if (current == null) return;
+
+        if (MinecraftClient.getInstance().world != current.world) {
+            job = null;
+            current.result.completeExceptionally(new IllegalStateException("Left the world"));
+            return;
+        }
+
+        for (int i = 0; i < SECTIONS_PER_TICK && current.hasNext(); i++) {
+            current.copyNextSection();
+        }
+        if (current.hasNext()) return;
+
+        job = null;
+        BlockSnapshot<BlockState> snapshot = current.snapshot;
+        CompletableFuture.supplyAsync(() -> snapshot.encode(
+                        state -> Registries.BLOCK.getId(state.getBlock()).toString()), encoder)
+                .whenComplete((encoded, error) -> {
+                    if (error != null) {
+                        current.result.completeExceptionally(error);
+                    } else {
+                        OpenCodeMod.LOGGER.debug("World snapshot of {} blocks encoded to {} chars",
+                                snapshot.getBlockCount(), encoded.length());
+                        current.result.complete(encoded);
+                    }
+                });
+    }
+
+    public void shutdown() {
+        encoder.shutdownNow();
+    }
+
+    /**
+     * A snapshot being copied, walking the sections it overlaps one at a time
+     */
+    private static final class Job {
+        final ClientWorld world;
+        final BlockSnapshot<BlockState> snapshot;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final int minX, minY, minZ, maxX, maxY, maxZ;
+        final int minSectionY, maxSectionY, maxChunkX, maxChunkZ;
+
+        // Next section to copy
+        int chunkX, chunkZ, sectionY;
+
+        Job(ClientWorld world, BlockPos center, int radius) {
+            this.world = world;
+            this.minX = center.getX() - radius;
+            this.maxX = center.getX() + radius;
+            this.minZ = center.getZ() - radius;
+            this.maxZ = center.getZ() + radius;
+            this.minY = Math.max(world.getBottomY(), center.getY() - radius);
+            this.maxY = Math.min(world.getBottomY() + world.getHeight() - 1, center.getY() + radius);
+            this.snapshot = new BlockSnapshot<>(minX, minY, minZ,
+                    maxX - minX + 1, maxY - minY + 1, maxZ - minZ + 1);
+
+            this.minSectionY = minY >> 4;
+            this.maxSectionY = maxY >> 4;
+            this.maxChunkX = maxX >> 4;
+            this.maxChunkZ = maxZ >> 4;
+            this.chunkX = minX >> 4;
+            this.chunkZ = minZ >> 4;
+            this.sectionY = minSectionY;
+        }
+
+        boolean hasNext() {
+            return chunkX <= maxChunkX;
+        }
+
+        void copyNextSection() {
+            copySection(chunkX, chunkZ, sectionY);
+
+            if (++sectionY > maxSectionY) {
+                sectionY = minSectionY;
+                if (++chunkZ > maxChunkZ) {
+                    chunkZ = minZ >> 4;
+                    chunkX++;
+                }
+            }
+        }
+
+        private void copySection(int cx, int cz, int sy) {
+            // Unloaded chunks and empty sections are left as air
+            Chunk chunk = world.getChunk(cx, cz, ChunkStatus.FULL, false);
+            if (chunk == null) return;
+            ChunkSection section = chunk.getSection(chunk.sectionCoordToIndex(sy));
+            if (section.isEmpty()) return;
+
+            int x0 = Math.max(minX, cx << 4), x1 = Math.min(maxX, (cx << 4) + 15);
+            int y0 = Math.max(minY, sy << 4), y1 = Math.min(maxY, (sy << 4) + 15);
+            int z0 = Math.max(minZ, cz << 4), z1 = Math.min(maxZ, (cz << 4) + 15);
+            for (int y = y0; y <= y1; y++) {
+                for (int z = z0; z <= z1; z++) {
+                    for (int x = x0; x <= x1; x++) {
+                        BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+                        if (!state.isAir()) {
+                            snapshot.set(x, y, z, state);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
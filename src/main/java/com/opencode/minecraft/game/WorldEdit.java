@@ -0,0 +1,69 @@
+package com.opencode.minecraft.game;
+
+/**
+ * One block edit from the agent: a box of blocks, all set to the same block.
+ * A single setblock is a box of one.
+ */
+public class WorldEdit {
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int maxX;
+    private final int maxY;
+    private final int maxZ;
+    private final String block;
+
+    public WorldEdit(int x1, int y1, int z1, int x2, int y2, int z2, String block) {
+        this.minX = Math.min(x1, x2);
+        this.minY = Math.min(y1, y2);
+        this.minZ = Math.min(z1, z2);
+        this.maxX = Math.max(x1, x2);
+        this.maxY = Math.max(y1, y2);
+        this.maxZ = Math.max(z1, z2);
+        this.block = block;
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * Gets the block as written by the agent, e.g. "minecraft:oak_stairs[facing=east]"
+     */
+    public String getBlock() {
+        return block;
+    }
+
+    /**
+     * Gets the number of blocks in the box
+     */
+    public long getVolume() {
+        return (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "WorldEdit{" + minX + " " + minY + " " + minZ + " .. " + maxX + " " + maxY + " " + maxZ
+                + " " + block + "}";
+    }
+}
@@ -0,0 +1,398 @@
+package com.opencode.minecraft.game;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Applies the agent's block edits to the world a batch at a time.
+ *
+ * Edits are submitted from the game thread as they are parsed and applied
+ * on the server thread within a per-tick time budget, bottom layer first,
+ * so a build of thousands of blocks goes up over a few ticks instead of
+ * stalling one. An edit reaching into a chunk that isn't loaded waits for
+ * it to load rather than loading it in the middle of the tick. Every block
+ * replaced is journaled, grouped by build (one per text part), so the most
+ * recent builds can be undone; undoing runs under the same budget.
+ *
+ * Only block states are journaled, so blocks holding block entities, such
+ * as chests, are never replaced: their contents couldn't be brought back.
+ *
+ * @param <T> the game's block state type
+ */
+public class WorldEditApplier<T> {
+    // Builds kept for undo, most recent last
+    static final int MAX_UNDO_BUILDS = 8;
+    // Bound on journaled blocks across all builds; the oldest builds are forgotten first
+    static final int MAX_JOURNAL_BLOCKS = 1 << 20;
+    // The clock is checked once per this many blocks
+    private static final int BLOCKS_PER_CLOCK_CHECK = 16;
+
+    /**
+     * Reads and writes blocks in one world
+     */
+    public interface BlockAccess<T> {
+        /**
+         * Parses a block such as "minecraft:oak_stairs[facing=east]", or returns null if it isn't one
+         */
+        T parse(String block);
+
+        /**
+         * Returns true if the chunk holding this column is loaded. If not,
+         * starts loading it so that a later tick can carry on.
+         */
+        boolean isChunkReady(int x, int z);
+
+        /**
+         * Gets the block at a position, or null if it may not be changed:
+         * outside the world, or holding a block entity
+         */
+        T getBlock(int x, int y, int z);
+
+        void setBlock(int x, int y, int z, T block);
+    }
+
+    private static final class Pending {
+        final String build;
+        final WorldEdit edit;
+
+        Pending(String build, WorldEdit edit) {
+            this.build = build;
+            this.edit = edit;
+        }
+    }
+
+    /**
+     * The blocks one build replaced, in the order it replaced them
+     */
+    private static final class Build {
+        final String id;
+        final BlockAccess<?> access;
+        long[] positions = new long[64];
+        Object[] previous = new Object[64];
+        int size = 0;
+        // Set once the build is too large to journal; it can no longer be undone
+        boolean untracked = false;
+
+        Build(String id, BlockAccess<?> access) {
+            this.id = id;
+            this.access = access;
+        }
+
+        void record(int x, int y, int z, Object block) {
+            if (untracked) return;
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                previous = Arrays.copyOf(previous, size * 2);
+            }
+            positions[size] = pack(x, y, z);
+            previous[size] = block;
+            size++;
+        }
+    }
+
+    private final LongSupplier nanoClock;
+    // Written by the game thread, drained by the server thread
+    private final ConcurrentLinkedQueue<Pending> inbox = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<CompletableFuture<Integer>> undoRequests = new ConcurrentLinkedQueue<>();
+    private volatile long budgetNanos = 10_000_000L;
+
+    // Server thread only
+    private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+    private final ArrayDeque<Build> journal = new ArrayDeque<>();
+    private final Map<String, Object> parsed = new HashMap<>();
+    // Builds undone while the agent may still be writing them
+    private final Set<String> undone = new HashSet<>();
+    private int journalBlocks = 0;
+    private Pending current;
+    private Build currentBuild;
+    // Next block of the current edit, x fastest then z, bottom layer first
+    private long cursor;
+    private T currentBlock;
+    private Build undoing;
+    private CompletableFuture<Integer> undoResult;
+    private int placed = 0;
+    // Chunk last found loaded this tick, so the check runs once per chunk rather than per block
+    private BlockAccess<?> readyAccess;
+    private long readyChunk;
+    // Set when the next block's chunk is still loading; the rest of the tick is skipped
+    private boolean waiting = false;
+
+    public WorldEditApplier() {
+        this(System::nanoTime);
+    }
+
+    WorldEditApplier(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Queues an edit as part of a build; any thread
+     */
+    public void submit(String build, WorldEdit edit) {
+        inbox.add(new Pending(build, edit));
+    }
+
+    /**
+     * Asks the server to undo the most recent build, stopping it first if it
+     * is still going up. Completes with the number of blocks restored, 0 if
+     * there was nothing to undo.
+     */
+    public CompletableFuture<Integer> requestUndo() {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        undoRequests.add(result);
+        return result;
+    }
+
+    public void setBudgetMs(int budgetMs) {
+        this.budgetNanos = Math.max(1, budgetMs) * 1_000_000L;
+    }
+
+    /**
+     * Returns true if there is anything to apply or undo; server thread only
+     */
+    public boolean hasWork() {
+        return current != null || undoing != null || !queue.isEmpty()
+                || !inbox.isEmpty() || !undoRequests.isEmpty();
+    }
+
+    /**
+     * Applies queued edits and undos until this tick's budget is spent.
+     * Server thread only; access is the world new builds go into.
+     * Returns the number of blocks changed.
+     */
+    public int tick(BlockAccess<T> access) {
+        Pending pending;
+        while ((pending = inbox.poll()) != null) {
+            queue.add(pending);
+        }
+
+        long deadline = nanoClock.getAsLong() + budgetNanos;
+        int changed = 0;
+        // Chunks may have unloaded since the last tick
+        readyAccess = null;
+        while (true) {
+            if (undoing == null && !startUndo()) {
+                if (current == null && !startEdit(access)) break;
+            }
+            for (int i = 0; i < BLOCKS_PER_CLOCK_CHECK; i++) {
+                if (undoing != null ? !undoStep() : !applyStep()) break;
+                changed++;
+            }
+            if (waiting) {
+                waiting = false;
+                break;
+            }
+            if (nanoClock.getAsLong() >= deadline) break;
+        }
+        return changed;
+    }
+
+    /**
+     * Forgets all edits, pending and journaled, e.g. when the world closes
+     */
+    public void clear() {
+        inbox.clear();
+        queue.clear();
+        journal.clear();
+        parsed.clear();
+        undone.clear();
+        journalBlocks = 0;
+        current = null;
+        currentBuild = null;
+        currentBlock = null;
+        readyAccess = null;
+        waiting = false;
+        if (undoResult != null) {
+            undoResult.complete(0);
+        }
+        undoing = null;
+        undoResult = null;
+        CompletableFuture<Integer> request;
+        while ((request = undoRequests.poll()) != null) {
+            request.complete(0);
+        }
+    }
+
+    /**
+     * Picks up the next undo request, returning true if one is now running
+     */
+    private boolean startUndo() {
+        CompletableFuture<Integer> request = undoRequests.poll();
+        if (request == null) return false;
+
+        Build build = journal.pollLast();
+        if (build == null) {
+            request.complete(0);
+            return false;
+        }
+
+        // Stop the build if it is still going up, including edits yet to arrive
+        if (current != null && current.build.equals(build.id)) {
+            current = null;
+        }
+        queue.removeIf(pending -> pending.build.equals(build.id));
+        undone.add(build.id);
+        journalBlocks -= build.size;
+
+        undoing = build;
+        undoResult = request;
+        placed = 0;
+        return true;
+    }
+
+    /**
+     * Restores one block of the build being undone, returning false once it is done
+     */
+    @SuppressWarnings("unchecked")
+    private boolean undoStep() {
+        Build build = undoing;
+        if (build.size == 0) {
+            undoing = null;
+            undoResult.complete(placed);
+            undoResult = null;
+            return false;
+        }
+
+        long position = build.positions[build.size - 1];
+        if (!isChunkReady(build.access, unpackX(position), unpackZ(position))) return false;
+
+        build.size--;
+        ((BlockAccess<Object>) build.access).setBlock(unpackX(position), unpackY(position), unpackZ(position),
+                build.previous[build.size]);
+        build.previous[build.size] = null;
+        placed++;
+        return true;
+    }
+
+    /**
+     * Moves on to the next queued edit, returning false if there is none
+     */
+    @SuppressWarnings("unchecked")
+    private boolean startEdit(BlockAccess<T> access) {
+        while (!queue.isEmpty()) {
+            Pending next = queue.poll();
+            if (undone.contains(next.build)) continue;
+            Object block = parsed.computeIfAbsent(next.edit.getBlock(), name -> {
+                T result = access.parse(name);
+                return result != null ? result : Boolean.FALSE;
+            });
+            if (block == Boolean.FALSE) continue;
+
+            if (currentBuild == null || !currentBuild.id.equals(next.build)) {
+                currentBuild = new Build(next.build, access);
+                journal.addLast(currentBuild);
+                while (journal.size() > MAX_UNDO_BUILDS) {
+                    journalBlocks -= journal.pollFirst().size;
+                }
+            }
+            current = next;
+            currentBlock = (T) block;
+            cursor = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sets the next block of the current edit, returning false once it is done
+     */
+    @SuppressWarnings("unchecked")
+    private boolean applyStep() {
+        if (current == null) return false;
+
+        WorldEdit edit = current.edit;
+        Build build = currentBuild;
+        BlockAccess<T> access = (BlockAccess<T>) build.access;
+        int sizeX = edit.getMaxX() - edit.getMinX() + 1;
+        int sizeZ = edit.getMaxZ() - edit.getMinZ() + 1;
+
+        while (cursor < edit.getVolume()) {
+            int x = edit.getMinX() + (int) (cursor % sizeX);
+            int z = edit.getMinZ() + (int) (cursor / sizeX % sizeZ);
+            int y = edit.getMinY() + (int) (cursor / sizeX / sizeZ);
+            if (!isChunkReady(access, x, z)) return false;
+            cursor++;
+
+            T previous = access.getBlock(x, y, z);
+            if (previous == null || previous == currentBlock) continue;
+
+            access.setBlock(x, y, z, currentBlock);
+            if (!build.untracked) {
+                build.record(x, y, z, previous);
+                if (++journalBlocks > MAX_JOURNAL_BLOCKS) {
+                    forgetOldest();
+                }
+            }
+            return true;
+        }
+
+        current = null;
+        return false;
+    }
+
+    /**
+     * Returns true if the chunk holding this column is loaded, else flags the
+     * tick as waiting for it
+     */
+    private boolean isChunkReady(BlockAccess<?> access, int x, int z) {
+        long chunk = pack(x >> 4, 0, z >> 4);
+        if (access == readyAccess && chunk == readyChunk) return true;
+        if (!access.isChunkReady(x, z)) {
+            waiting = true;
+            return false;
+        }
+        readyAccess = access;
+        readyChunk = chunk;
+        return true;
+    }
+
+    /**
+     * Drops the oldest builds from the journal until it is back within bounds.
+     * A build too large to fit on its own stops being journaled altogether,
+     * rather than leaving half of it undoable.
+     */
+    private void forgetOldest() {
+        while (journalBlocks > MAX_JOURNAL_BLOCKS && journal.size() > 1) {
+            journalBlocks -= journal.pollFirst().size;
+        }
+        if (journalBlocks > MAX_JOURNAL_BLOCKS) {
+            Build build = journal.pollLast();
+            build.untracked = true;
+            build.positions = new long[0];
+            build.previous = new Object[0];
+            build.size = 0;
+            journalBlocks = 0;
+        }
+    }
+
+    /**
+     * Gets the number of builds that can currently be undone; server thread only
+     */
+    int getUndoableBuilds() {
+        return journal.size();
+    }
+
+    // Same layout as the game's packed block positions: 26 bits x, 26 bits z, 12 bits y
+    static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (long) y & 0xFFFL;
+    }
+
+    static int unpackX(long packed) {
+        return (int) (packed >> 38);
+    }
+
+    static int unpackY(long packed) {
+        return (int) (packed << 52 >> 52);
+    }
+
+    static int unpackZ(long packed) {
+        return (int) (packed << 26 >> 38);
+    }
+}
@@ -0,0 +1,238 @@
+package com.opencode.minecraft.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Picks block edits out of a text part as it streams in.
+ *
+ * The agent writes edits as vanilla commands in an mcfunction code block:
+ * <pre>
+ * ```mcfunction
+ * fill ~-3 ~-1 ~-3 ~3 ~-1 ~3 minecraft:stone_bricks
+ * fill ~-3 ~ ~-3 ~3 ~4 ~3 minecraft:oak_planks hollow
+ * setblock ~ ~ ~-3 minecraft:air
+ * ```
+ * </pre>
+ * Only setblock and fill are understood (fill with replace, destroy, hollow
+ * or outline); anything else, and edits too large or too far away, are
+ * counted as rejected. Relative coordinates are taken from the player's
+ * position when the part started. Each complete line is parsed once, so a
+ * build can start going up while the agent is still writing it.
+ */
+public class WorldEditParser {
+    // Vanilla's default limit for a single fill
+    static final int MAX_FILL_VOLUME = 32768;
+    // How far from the player an edit may reach, on any axis
+    static final int MAX_DISTANCE = 256;
+
+    private static final Set<String> FENCE_LANGUAGES = Set.of("mcfunction", "minecraft");
+
+    private enum Fence { NONE, EDITS, OTHER }
+
+    private final int anchorX;
+    private final int anchorY;
+    private final int anchorZ;
+
+    private Fence fence = Fence.NONE;
+    // Length of the part's text already parsed
+    private int consumed = 0;
+    private int editCount = 0;
+    private long blockCount = 0;
+    private int rejected = 0;
+
+    public WorldEditParser(int anchorX, int anchorY, int anchorZ) {
+        this.anchorX = anchorX;
+        this.anchorY = anchorY;
+        this.anchorZ = anchorZ;
+    }
+
+    /**
+     * Parses the complete lines of the part's text not seen before.
+     * Takes the part's full text so far, not a delta.
+     */
+    public List<WorldEdit> feed(String text) {
+        List<WorldEdit> edits = new ArrayList<>();
+        int end = text.lastIndexOf('\n');
+        while (consumed <= end) {
+            int newline = text.indexOf('\n', consumed);
+            parseLine(text.substring(consumed, newline), edits);
+            consumed = newline + 1;
+        }
+        return edits;
+    }
+
+    /**
+     * Parses whatever is left once the part has finished streaming
+     */
+    public List<WorldEdit> finish(String text) {
+        List<WorldEdit> edits = feed(text);
+        if (consumed < text.length()) {
+            parseLine(text.substring(consumed), edits);
+            consumed = text.length();
+        }
+        return edits;
+    }
+
+    private void parseLine(String raw, List<WorldEdit> edits) {
+        String line = raw.trim();
+        if (line.startsWith("```")) {
+            if (fence == Fence.NONE) {
+                String language = line.substring(3).trim().toLowerCase(Locale.ROOT);
+                fence = FENCE_LANGUAGES.contains(language) ? Fence.EDITS : Fence.OTHER;
+            } else {
+                fence = Fence.NONE;
+            }
+            return;
+        }
+        if (fence != Fence.EDITS || line.isEmpty() || line.startsWith("#")) return;
+
+        int before = edits.size();
+        if (!parseCommand(line.startsWith("/") ? line.substring(1) : line, edits)) {
+            rejected++;
+            while (edits.size() > before) {
+                edits.remove(edits.size() - 1);
+            }
+            return;
+        }
+        for (int i = before; i < edits.size(); i++) {
+            editCount++;
+            blockCount += edits.get(i).getVolume();
+        }
+    }
+
+    private boolean parseCommand(String line, List<WorldEdit> edits) {
+        String[] tokens = line.split("\\s+", 2);
+        String rest = tokens.length > 1 ? tokens[1] : "";
+        try {
+            switch (tokens[0]) {
+                case "setblock" -> {
+                    String[] args = rest.split("\\s+", 4);
+                    if (args.length < 4) return false;
+                    int x = coordinate(args[0], anchorX);
+                    int y = coordinate(args[1], anchorY);
+                    int z = coordinate(args[2], anchorZ);
+                    String[] block = blockAndMode(args[3]);
+                    if (block == null || !isReplace(block[1])) return false;
+                    return add(new WorldEdit(x, y, z, x, y, z, block[0]), edits);
+                }
+                case "fill" -> {
+                    String[] args = rest.split("\\s+", 7);
+                    if (args.length < 7) return false;
+                    int x1 = coordinate(args[0], anchorX);
+                    int y1 = coordinate(args[1], anchorY);
+                    int z1 = coordinate(args[2], anchorZ);
+                    int x2 = coordinate(args[3], anchorX);
+                    int y2 = coordinate(args[4], anchorY);
+                    int z2 = coordinate(args[5], anchorZ);
+                    String[] block = blockAndMode(args[6]);
+                    if (block == null) return false;
+                    WorldEdit box = new WorldEdit(x1, y1, z1, x2, y2, z2, block[0]);
+                    if (box.getVolume() > MAX_FILL_VOLUME) return false;
+
+                    if (isReplace(block[1])) {
+                        return add(box, edits);
+                    }
+                    if (block[1].equals("outline") || block[1].equals("hollow")) {
+                        return addShell(box, block[1].equals("hollow"), edits);
+                    }
+                    return false;
+                }
+                default -> {
+                    return false;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isReplace(String mode) {
+        return mode.isEmpty() || mode.equals("replace") || mode.equals("destroy");
+    }
+
+    /**
+     * Splits "block[state] mode" into the block (spaces removed) and the mode,
+     * or returns null if the block carries NBT, which isn't supported
+     */
+    private static String[] blockAndMode(String text) {
+        if (text.contains("{")) return null;
+        String block = text;
+        String mode = "";
+        int close = text.lastIndexOf(']');
+        int space = text.lastIndexOf(' ');
+        if (space > close) {
+            block = text.substring(0, space);
+            mode = text.substring(space + 1);
+        }
+        block = block.replaceAll("\\s+", "");
+        return block.isEmpty() ? null : new String[] {block, mode};
+    }
+
+    /**
+     * Splits a box into its six faces, plus air inside for hollow
+     */
+    private boolean addShell(WorldEdit box, boolean hollow, List<WorldEdit> edits) {
+        int x1 = box.getMinX(), y1 = box.getMinY(), z1 = box.getMinZ();
+        int x2 = box.getMaxX(), y2 = box.getMaxY(), z2 = box.getMaxZ();
+        String block = box.getBlock();
+
+        // Too thin to have an inside: the shell is the whole box
+        if (x2 - x1 < 2 || y2 - y1 < 2 || z2 - z1 < 2) {
+            return add(box, edits);
+        }
+        // Floor and ceiling, then the four walls between them without overlap
+        return add(new WorldEdit(x1, y1, z1, x2, y1, z2, block), edits)
+                && add(new WorldEdit(x1, y2, z1, x2, y2, z2, block), edits)
+                && add(new WorldEdit(x1, y1 + 1, z1, x2, y2 - 1, z1, block), edits)
+                && add(new WorldEdit(x1, y1 + 1, z2, x2, y2 - 1, z2, block), edits)
+                && add(new WorldEdit(x1, y1 + 1, z1 + 1, x1, y2 - 1, z2 - 1, block), edits)
+                && add(new WorldEdit(x2, y1 + 1, z1 + 1, x2, y2 - 1, z2 - 1, block), edits)
+                && (!hollow || add(new WorldEdit(x1 + 1, y1 + 1, z1 + 1, x2 - 1, y2 - 1, z2 - 1,
+                        "minecraft:air"), edits));
+    }
+
+    private boolean add(WorldEdit edit, List<WorldEdit> edits) {
+        if (Math.abs(edit.getMinX() - anchorX) > MAX_DISTANCE || Math.abs(edit.getMaxX() - anchorX) > MAX_DISTANCE
+                || Math.abs(edit.getMinY() - anchorY) > MAX_DISTANCE || Math.abs(edit.getMaxY() - anchorY) > MAX_DISTANCE
+                || Math.abs(edit.getMinZ() - anchorZ) > MAX_DISTANCE || Math.abs(edit.getMaxZ() - anchorZ) > MAX_DISTANCE) {
+            return false;
+        }
+        edits.add(edit);
+        return true;
+    }
+
+    /**
+     * Parses an absolute or "~" relative coordinate. Local "^" coordinates
+     * and fractions aren't supported.
+     */
+    private static int coordinate(String token, int anchor) {
+        if (token.startsWith("~")) {
+            return token.length() == 1 ? anchor : anchor + Integer.parseInt(token.substring(1));
+        }
+        return Integer.parseInt(token);
+    }
+
+    /**
+     * Gets the number of edits accepted so far
+     */
+    public int getEditCount() {
+        return editCount;
+    }
+
+    /**
+     * Gets the number of blocks covered by the accepted edits
+     */
+    public long getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Gets the number of lines in edit blocks that couldn't be used
+     */
+    public int getRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,24 @@
+package com.opencode.minecraft.mixin;
+
+import com.opencode.minecraft.OpenCodeMod;
+import net.minecraft.client.world.ClientWorld;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin to stop ticking client-side entities while OpenCode has the game
+ * paused. Nothing can move anyway, so their animations are wasted work.
+ */
+@Mixin(ClientWorld.class)
+public abstract class ClientWorldMixin {
+
+    @Inject(method = "tickEntities", at = @At("HEAD"), cancellable = true)
+    private void opencode$onTickEntities(CallbackInfo ci) {
+        if (OpenCodeMod.getPauseController() != null &&
+            OpenCodeMod.getPauseController().shouldGameBePaused()) {
+            ci.cancel();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.opencode.minecraft.mixin;
+
+import com.opencode.minecraft.OpenCodeMod;
+import com.opencode.minecraft.game.PauseController;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.RenderTickCounter;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin to skip drawing the world while paused, when configured to show
+ * only the pause overlay.
+ */
+@Mixin(GameRenderer.class)
+public abstract class GameRendererMixin {
+
+    @Inject(method = "renderWorld", at = @At("HEAD"), cancellable = true)
+    private void opencode$onRenderWorld(RenderTickCounter tickCounter, CallbackInfo ci) {
+        PauseController pauseController = OpenCodeMod.getPauseController();
+        if (pauseController != null && pauseController.isHideWorldWhilePaused()
+                && pauseController.shouldGameBePaused()) {
+            ci.cancel();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.opencode.minecraft.mixin;
+
+import com.opencode.minecraft.OpenCodeMod;
+import com.opencode.minecraft.game.PauseController;
+import net.minecraft.client.option.InactivityFpsLimiter;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Mixin to cap the frame rate while OpenCode has the game paused, the same
+ * way vanilla does for a minimized or unfocused window.
+ */
+@Mixin(InactivityFpsLimiter.class)
+public abstract class InactivityFpsLimiterMixin {
+
+    /**
+     * Lower the frame-rate limit chosen by vanilla while paused.
+     */
+    @Inject(method = "update", at = @At("RETURN"), cancellable = true)
+    private void opencode$onUpdate(CallbackInfoReturnable<Integer> cir) {
+        PauseController pauseController = OpenCodeMod.getPauseController();
+        if (pauseController == null || !pauseController.shouldGameBePaused()) return;
+
+        int limit = pauseController.getPausedFpsLimit();
+        if (limit > 0 && limit < cir.getReturnValue()) {
+            cir.setReturnValue(limit);
+        }
+    }
+}
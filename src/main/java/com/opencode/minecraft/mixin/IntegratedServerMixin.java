@@ -1,9 +1,24 @@
 package com.opencode.minecraft.mixin;
 
 import com.opencode.minecraft.OpenCodeMod;
+import com.opencode.minecraft.client.session.SessionStatus;
+import com.opencode.minecraft.game.AutosaveScheduler;
+import com.opencode.minecraft.game.ChunkGenerationQueue;
+import com.opencode.minecraft.game.ChunkPregenerator;
+import com.opencode.minecraft.game.PauseController;
+import com.opencode.minecraft.game.ResumeRamp;
+import com.opencode.minecraft.game.ServerBlockAccess;
+import com.opencode.minecraft.game.TickRateGovernor;
+import com.opencode.minecraft.game.WorldEditApplier;
+import net.minecraft.block.BlockState;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.integrated.IntegratedServer;
 import net.minecraft.server.PlayerManager;
+import net.minecraft.server.ServerTickManager;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.ChunkPos;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
@@ -15,19 +30,51 @@ import java.util.function.BooleanSupplier;
 /**
  * Mixin to control the integrated server's tick execution.
  * This allows us to pause the game when OpenCode is idle.
+ *
+ * By default the world is paused with the vanilla tick freeze (as with
+ * /tick freeze): entities and blocks stop, while keepalives, the task queue,
+ * chunk I/O and autosave keep running. Skipping the whole tick is still
+ * available as a fallback. While not paused, the tick-rate governor can
+ * slow the world down to match how fast the agent is working. Resuming
+ * resets the server's tick clock and, after a long pause, eases the tick
+ * rate back up; see {@link ResumeRamp}. Block edits written by the agent
+ * are applied here too, paused or not, a budgeted batch per tick.
  */
 @Mixin(IntegratedServer.class)
 public abstract class IntegratedServerMixin {
 
+    // Whether the current freeze is ours, so a player's own /tick freeze is left alone
     @Unique
-    private int opencode$ticksSincePlayerJoined = 0;
+    private boolean opencode$frozeWorld = false;
 
+    // Tick rate last set by the governor, or 0 when it isn't in control
     @Unique
-    private static final int OPENCODE$GRACE_TICKS = 100; // ~5 seconds at 20 TPS
+    private float opencode$governedRate = 0;
+
+    // Set when the player changes the rate with /tick rate; the governor backs off until they leave
+    @Unique
+    private boolean opencode$rateOverridden = false;
+
+    @Unique
+    private final AutosaveScheduler opencode$autosave = new AutosaveScheduler();
+
+    @Unique
+    private final ChunkPregenerator opencode$pregenerator = new ChunkPregenerator();
+
+    // Chunks being generated in the player's world, or null
+    @Unique
+    private ChunkGenerationQueue opencode$pregenQueue;
+
+    @Unique
+    private final ResumeRamp opencode$resumeRamp = new ResumeRamp();
+
+    // Block access for the world the player is in, kept while they stay there
+    @Unique
+    private ServerBlockAccess opencode$blockAccess;
 
     /**
-     * Inject at the head of the tick method to potentially cancel it.
-     * When cancelled, the world won't update (entities freeze, time stops).
+     * Inject at the head of the tick method to freeze the world, or cancel
+     * the tick when using the fallback backend.
      */
     @Inject(method = "tick", at = @At("HEAD"), cancellable = true)
     private void opencode$onTick(BooleanSupplier shouldKeepTicking, CallbackInfo ci) {
@@ -37,20 +84,179 @@ public abstract class IntegratedServerMixin {
         // Never pause if no players are connected yet
         PlayerManager playerManager = server.getPlayerManager();
         if (playerManager == null || playerManager.getPlayerList().isEmpty()) {
-            opencode$ticksSincePlayerJoined = 0;
+            opencode$setFrozen(server, false);
+            opencode$governTickRate(server, 0);
+            opencode$rateOverridden = false;
+            opencode$resumeRamp.reset();
             return;
         }
 
-        // Grace period after player joins - let the world fully load
-        if (opencode$ticksSincePlayerJoined < OPENCODE$GRACE_TICKS) {
-            opencode$ticksSincePlayerJoined++;
+        // Now check if we should pause; the join grace period is PauseController's
+        PauseController pauseController = OpenCodeMod.getPauseController();
+        boolean paused = pauseController != null && pauseController.shouldGameBePaused();
+
+        // Don't make up for time spent paused with a burst of back-to-back ticks.
+        // The field holds when the next tick is due, so schedule it one tick from now.
+        if (opencode$resumeRamp.onTick(paused)) {
+            server.tickStartTimeNanos = Util.getMeasuringTimeNano() + server.getTickManager().getNanosPerTick();
+        }
+
+        // Save while paused rather than in the middle of play
+        if (pauseController != null && pauseController.isSaveOnPause()) {
+            opencode$scheduleAutosave(server, paused, pauseController.getStatus() == SessionStatus.GENERATING);
+        }
+
+        // While running, the rate follows the agent's throughput if the governor is on,
+        // and is eased back up after a long pause
+        if (!paused) {
+            boolean governed = pauseController != null && pauseController.isGovernorEnabled();
+            float rate = governed ? pauseController.getTargetTickRate() : TickRateGovernor.FULL_RATE;
+            if (opencode$resumeRamp.isRamping()) {
+                rate = Math.min(rate, Math.round(TickRateGovernor.FULL_RATE * opencode$resumeRamp.getRateFraction()));
+            }
+            opencode$governTickRate(server, governed || opencode$resumeRamp.isRamping() ? rate : 0);
+        }
+
+        // Builds go up while the agent is still writing them, so this runs paused or not
+        WorldEditApplier<BlockState> worldEdits = OpenCodeMod.getWorldEdits();
+        if (worldEdits != null && worldEdits.hasWork()) {
+            opencode$applyWorldEdits(worldEdits, playerManager.getPlayerList().get(0));
+        }
+
+        // Generation only goes on while paused: release anything in flight straight away
+        if (!paused || !pauseController.isTickFreeze() || !pauseController.isPregenerateChunks()) {
+            opencode$stopPregenerating();
+        }
+
+        if (pauseController != null && !pauseController.isTickFreeze()) {
+            opencode$setFrozen(server, false);
+            if (paused) {
+                ci.cancel();
+            }
             return;
         }
+        opencode$setFrozen(server, paused);
+
+        // Use the idle server to generate terrain ahead of the player; only while
+        // frozen, since a cancelled tick would never save and unload the chunks
+        if (paused && pauseController.isPregenerateChunks()) {
+            opencode$pregenerate(server, playerManager.getPlayerList().get(0), pauseController);
+        }
+    }
 
-        // Now check if we should pause
-        if (OpenCodeMod.getPauseController() != null &&
-            OpenCodeMod.getPauseController().shouldGameBePaused()) {
-            ci.cancel();
+    /**
+     * Freezes or unfreezes the world, only undoing freezes we made
+     */
+    @Unique
+    private void opencode$setFrozen(MinecraftServer server, boolean frozen) {
+        ServerTickManager tickManager = server.getTickManager();
+        if (frozen && !opencode$frozeWorld) {
+            // Already frozen by the player: not ours to lift later
+            if (tickManager.isFrozen()) return;
+            tickManager.setFrozen(true);
+            opencode$frozeWorld = true;
+        } else if (!frozen && opencode$frozeWorld) {
+            opencode$frozeWorld = false;
+            if (tickManager.isFrozen()) {
+                tickManager.setFrozen(false);
+            }
+        }
+    }
+
+    /**
+     * Applies the governor's rate, or restores the vanilla rate when given 0
+     */
+    @Unique
+    private void opencode$governTickRate(MinecraftServer server, float rate) {
+        ServerTickManager tickManager = server.getTickManager();
+        float current = tickManager.getTickRate();
+        boolean changedByPlayer = opencode$governedRate != 0
+                ? current != opencode$governedRate
+                : rate != 0 && current != TickRateGovernor.FULL_RATE;
+        if (changedByPlayer) {
+            // Set with /tick rate: leave it to the player
+            opencode$governedRate = 0;
+            opencode$rateOverridden = true;
+        }
+        if (opencode$rateOverridden || rate == opencode$governedRate) return;
+
+        if (rate == 0) {
+            tickManager.setTickRate(TickRateGovernor.FULL_RATE);
+        } else {
+            tickManager.setTickRate(rate);
+        }
+        opencode$governedRate = rate;
+    }
+
+    /**
+     * Saves on entering a pause and puts off autosaves due while generating
+     */
+    @Unique
+    private void opencode$scheduleAutosave(MinecraftServer server, boolean paused, boolean generating) {
+        if (opencode$autosave.shouldSaveOnPause(paused, server.ticksUntilAutosave)) {
+            OpenCodeMod.LOGGER.debug("Saving world on pause");
+            server.saveAll(true, false, false);
+            server.ticksUntilAutosave = AutosaveScheduler.AUTOSAVE_INTERVAL_TICKS;
+            opencode$autosave.onSaved();
+        }
+        server.ticksUntilAutosave = opencode$autosave.postponeAutosave(generating, server.ticksUntilAutosave);
+    }
+
+    /**
+     * Applies a budgeted batch of the agent's block edits in the player's world
+     */
+    @Unique
+    private void opencode$applyWorldEdits(WorldEditApplier<BlockState> worldEdits, ServerPlayerEntity player) {
+        ServerWorld world = player.getServerWorld();
+        if (opencode$blockAccess == null || opencode$blockAccess.getWorld() != world) {
+            opencode$blockAccess = new ServerBlockAccess(world);
+        }
+        int changed = worldEdits.tick(opencode$blockAccess);
+        if (changed > 0) {
+            OpenCodeMod.LOGGER.debug("Applied {} block edits", changed);
+        }
+    }
+
+    /**
+     * Hands chunks around the player to the background generator, within this
+     * tick's budget and the queue's in-flight limit. Nothing here waits for a
+     * chunk: each is held by a temporary ticket while it generates, then
+     * released so the server saves and unloads it on its own.
+     */
+    @Unique
+    private void opencode$pregenerate(MinecraftServer server, ServerPlayerEntity player, PauseController pauseController) {
+        int radius = pauseController.getPregenerateRadius();
+        ServerWorld world = player.getServerWorld();
+        if (opencode$pregenQueue == null || opencode$pregenQueue.getWorld() != world) {
+            opencode$stopPregenerating();
+            opencode$pregenQueue = new ChunkGenerationQueue(world);
+        }
+        ChunkGenerationQueue queue = opencode$pregenQueue;
+
+        boolean wasBusy = !queue.isIdle();
+        queue.poll();
+        ChunkPos center = player.getChunkPos();
+        opencode$pregenerator.recenter(world, center.x, center.z);
+
+        long deadline = System.nanoTime() + pauseController.getPregenerateBudgetMs() * 1_000_000L;
+        while (queue.hasRoom() && System.nanoTime() < deadline && opencode$pregenerator.advance(radius)) {
+            queue.request(opencode$pregenerator.getX(), opencode$pregenerator.getZ());
+        }
+
+        if (wasBusy && queue.isIdle() && opencode$pregenerator.isDone(radius)) {
+            OpenCodeMod.LOGGER.info("Pre-generated {} chunks around the player ({} already there)",
+                    queue.getGenerated(), queue.getSkipped());
+        }
+    }
+
+    /**
+     * Releases chunks still being generated, so resuming play never waits on them
+     */
+    @Unique
+    private void opencode$stopPregenerating() {
+        if (opencode$pregenQueue != null) {
+            opencode$pregenQueue.cancel();
+            opencode$pregenQueue = null;
         }
     }
 }
@@ -0,0 +1,23 @@
+package com.opencode.minecraft.mixin;
+
+import com.opencode.minecraft.OpenCodeMod;
+import net.minecraft.client.particle.ParticleManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Mixin to freeze particles while OpenCode has the game paused.
+ */
+@Mixin(ParticleManager.class)
+public abstract class ParticleManagerMixin {
+
+    @Inject(method = "tick", at = @At("HEAD"), cancellable = true)
+    private void opencode$onTick(CallbackInfo ci) {
+        if (OpenCodeMod.getPauseController() != null &&
+            OpenCodeMod.getPauseController().shouldGameBePaused()) {
+            ci.cancel();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.opencode.minecraft.util;
+
+import net.minecraft.client.network.ServerInfo;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.WorldSavePath;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Builds stable keys identifying a world, used to bind sessions to worlds.
+ */
+public class WorldKeys {
+
+    /**
+     * Key for a singleplayer world, from its save folder name
+     */
+    public static String forSave(MinecraftServer server) {
+        Path root = server.getSavePath(WorldSavePath.ROOT).toAbsolutePath().normalize();
+        return "save:" + root.getFileName();
+    }
+
+    /**
+     * Key for a multiplayer server, from its address
+     */
+    public static String forServer(ServerInfo server) {
+        return "server:" + server.address.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,102 @@
+package com.opencode.minecraft.client.http;
+
+import com.opencode.minecraft.config.ModConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for OpenCodeHttpClient's event stream across reconfiguration.
+ */
+class OpenCodeHttpClientTest {
+    private final List<HttpServer> servers = new ArrayList<>();
+    private OpenCodeHttpClient client;
+
+    /**
+     * A server whose event stream sends a heartbeat every 20ms, counting the streams open on it
+     */
+    private HttpServer eventServer(String name, AtomicInteger openStreams) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/global/event", exchange -> {
+            openStreams.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            String line = "data: {\"directory\":\"" + name + "\",\"payload\":{\"type\":\"server.heartbeat\"}}\n\n";
+            try (OutputStream out = exchange.getResponseBody()) {
+                while (true) {
+                    out.write(line.getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    Thread.sleep(20);
+                }
+            } catch (IOException | InterruptedException e) {
+                // Client went away
+            } finally {
+                openStreams.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+        servers.add(server);
+        return server;
+    }
+
+    private static ModConfig config(HttpServer server) {
+        ModConfig config = new ModConfig();
+        config.serverUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        config.workingDirectory = "/work";
+        return config;
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail(message);
+            Thread.sleep(10);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) client.shutdown();
+        for (HttpServer server : servers) server.stop(0);
+    }
+
+    @Test
+    void testReconfigureLeavesOneLiveStream() throws Exception {
+        AtomicInteger openA = new AtomicInteger();
+        AtomicInteger openB = new AtomicInteger();
+        HttpServer a = eventServer("a", openA);
+        HttpServer b = eventServer("b", openB);
+
+        AtomicInteger eventsA = new AtomicInteger();
+        AtomicInteger eventsB = new AtomicInteger();
+        client = new OpenCodeHttpClient(config(a));
+        client.subscribeToEvents(event -> (event.getDirectory().equals("a") ? eventsA : eventsB).incrementAndGet());
+        await(() -> eventsA.get() > 0, "No events from the first server");
+
+        // As OpenCodeClient.onConfigChanged does: reconfigure, then subscribe again
+        client.reconfigure(config(b)).join();
+        client.subscribeToEvents(event -> (event.getDirectory().equals("a") ? eventsA : eventsB).incrementAndGet());
+        await(() -> eventsB.get() > 0, "No events from the new server");
+        await(() -> openA.get() == 0, "Stream to the old server still open");
+
+        // Give a stale loop time to reconnect if it were still running
+        int staleEvents = eventsA.get();
+        Thread.sleep(300);
+        assertEquals(0, openA.get());
+        assertEquals(1, openB.get(), "Exactly one stream to the new server");
+        assertEquals(staleEvents, eventsA.get(), "Old server's events stopped");
+    }
+}
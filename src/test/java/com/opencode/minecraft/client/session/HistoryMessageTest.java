@@ -0,0 +1,98 @@
+package com.opencode.minecraft.client.session;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for streaming HistoryMessage parsing and paging.
+ */
+class HistoryMessageTest {
+
+    private static String message(int i) {
+        return """
+                {"info": {"id": "msg_%d", "role": "%s", "time": {"created": 1}},
+                 "parts": [
+                   {"id": "prt_a", "type": "text", "text": "text %d"},
+                   {"id": "prt_b", "type": "tool", "tool": "read",
+                    "state": {"status": "completed", "input": {"path": "x"}, "output": "huge"}},
+                   {"id": "prt_c", "type": "step-start"}
+                 ]}
+                """.formatted(i, i % 2 == 0 ? "user" : "assistant", i);
+    }
+
+    private static JsonReader history(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append(message(i));
+        }
+        return new JsonReader(new StringReader(json.append(']').toString()));
+    }
+
+    @Test
+    void testReadsTextAndToolParts() throws IOException {
+        List<HistoryMessage> page = HistoryMessage.readPage(history(1), 10, null);
+
+        assertEquals(1, page.size());
+        HistoryMessage message = page.get(0);
+        assertEquals("msg_0", message.getId());
+        assertEquals("user", message.getRole());
+        assertEquals(2, message.getParts().size(), "Step parts are not shown");
+        assertEquals("text 0", message.getParts().get(0).getText());
+        assertEquals("read", message.getParts().get(1).getToolName());
+        assertEquals("completed", message.getParts().get(1).getToolState());
+    }
+
+    @Test
+    void testFirstPageKeepsNewestMessages() throws IOException {
+        // Server ignoring the limit must not change the result
+        List<HistoryMessage> page = HistoryMessage.readPage(history(50), 20, null);
+
+        assertEquals(20, page.size());
+        assertEquals("msg_30", page.get(0).getId());
+        assertEquals("msg_49", page.get(19).getId());
+    }
+
+    @Test
+    void testOlderPageStopsAtOldestLoaded() throws IOException {
+        List<HistoryMessage> page = HistoryMessage.readPage(history(50), 20, "msg_30");
+
+        assertEquals(20, page.size());
+        assertEquals("msg_10", page.get(0).getId());
+        assertEquals("msg_29", page.get(19).getId());
+    }
+
+    @Test
+    void testShortPageAtStartOfSession() throws IOException {
+        List<HistoryMessage> page = HistoryMessage.readPage(history(50), 20, "msg_5");
+
+        assertEquals(5, page.size());
+        assertEquals("msg_0", page.get(0).getId());
+    }
+
+    @Test
+    void testMissingStopMessageGivesEmptyPage() throws IOException {
+        List<HistoryMessage> page = HistoryMessage.readPage(history(5), 20, "msg_deleted");
+
+        assertTrue(page.isEmpty());
+    }
+
+    @Test
+    void testSyntheticTextIsSkipped() throws IOException {
+        String json = """
+                [{"info": {"id": "msg_1", "role": "user"},
+                  "parts": [{"type": "text", "text": "injected", "synthetic": true},
+                            {"type": "text", "text": "typed"}]}]
+                """;
+        List<HistoryMessage> page = HistoryMessage.readPage(new JsonReader(new StringReader(json)), 10, null);
+
+        assertEquals(1, page.get(0).getParts().size());
+        assertEquals("typed", page.get(0).getParts().get(0).getText());
+    }
+}
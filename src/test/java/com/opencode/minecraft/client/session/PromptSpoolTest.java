@@ -0,0 +1,174 @@
+package com.opencode.minecraft.client.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PromptSpool ordering, durability and crash recovery.
+ */
+class PromptSpoolTest {
+
+    @Test
+    void testDrainsInOrder(@TempDir Path tempDir) throws IOException {
+        PromptSpool spool = PromptSpool.open(tempDir.resolve("prompts.spool"));
+        assertEquals(1, spool.enqueue("ses_1", "first"));
+        assertEquals(2, spool.enqueue(null, "second"));
+
+        PromptSpool.Entry entry = spool.peek();
+        assertEquals("first", entry.getText());
+        assertEquals("ses_1", entry.getSessionId());
+        spool.markDone(entry.getSeq());
+
+        entry = spool.peek();
+        assertEquals("second", entry.getText());
+        assertNull(entry.getSessionId());
+        spool.markDone(entry.getSeq());
+
+        assertNull(spool.peek());
+        spool.close();
+    }
+
+    @Test
+    void testPendingPromptsSurviveReopen(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("prompts.spool");
+        PromptSpool spool = PromptSpool.open(file);
+        spool.enqueue("ses_1", "build the tower");
+        spool.enqueue("ses_1", "then light it \u2728");
+        spool.markDone(spool.peek().getSeq());
+        spool.close();
+
+        PromptSpool reopened = PromptSpool.open(file);
+        assertEquals(1, reopened.size());
+        assertEquals("then light it \u2728", reopened.peek().getText());
+
+        // Sequence numbers keep increasing across reopen
+        reopened.enqueue("ses_1", "next");
+        reopened.markDone(reopened.peek().getSeq());
+        assertEquals("next", reopened.peek().getText());
+        reopened.close();
+    }
+
+    @Test
+    void testTornRecordIsDiscarded(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("prompts.spool");
+        PromptSpool spool = PromptSpool.open(file);
+        spool.enqueue("ses_1", "kept");
+        spool.close();
+        long committedSize = Files.size(file);
+
+        // A crash in the middle of writing the next record
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'P', 0, 0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 40, 'x', 'y'}));
+        }
+
+        PromptSpool reopened = PromptSpool.open(file);
+        assertEquals(1, reopened.size());
+        assertEquals("kept", reopened.peek().getText());
+        assertEquals(committedSize, Files.size(file), "Torn tail should be truncated");
+        reopened.close();
+    }
+
+    @Test
+    void testCorruptRecordIsNotReplayed(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("prompts.spool");
+        PromptSpool spool = PromptSpool.open(file);
+        spool.enqueue("ses_1", "hello");
+        spool.close();
+
+        // Flip a byte of the prompt text so the CRC no longer matches
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 7] ^= 0x01;
+        Files.write(file, bytes);
+
+        PromptSpool reopened = PromptSpool.open(file);
+        assertEquals(0, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    void testFileIsEmptiedOnceDrained(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("prompts.spool");
+        PromptSpool spool = PromptSpool.open(file);
+        spool.enqueue(null, "one");
+        spool.markDone(spool.peek().getSeq());
+
+        assertEquals(0, Files.size(file));
+        spool.close();
+    }
+
+    @Test
+    void testAsyncEnqueueKeepsOrderAndCountsWrites(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("prompts.spool");
+        PromptSpool spool = PromptSpool.open(file);
+
+        CompletableFuture<Integer> first = spool.enqueueAsync("ses_1", "first");
+        CompletableFuture<Integer> second = spool.enqueueAsync("ses_1", "second");
+        // Counted straight away, so a prompt typed next can't overtake them
+        assertTrue(spool.size() >= 2);
+
+        assertEquals(1, (int) first.join());
+        assertEquals(2, (int) second.join());
+        assertEquals(2, spool.size());
+        spool.close();
+
+        PromptSpool reopened = PromptSpool.open(file);
+        assertEquals("first", reopened.peek().getText());
+        assertEquals(2, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    void testMessageIdIsKeptAcrossReopen(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("prompts.spool");
+        PromptSpool spool = PromptSpool.open(file);
+        spool.enqueue("ses_1", "first");
+        spool.enqueue("ses_1", "second");
+        String first = spool.peek().getMessageId();
+        spool.close();
+
+        // A retry after restart must go out under the same ID
+        PromptSpool reopened = PromptSpool.open(file);
+        assertEquals(first, reopened.peek().getMessageId());
+        assertTrue(first.startsWith("msg_"));
+        reopened.markDone(reopened.peek().getSeq());
+        assertNotEquals(first, reopened.peek().getMessageId());
+        reopened.close();
+    }
+
+    @Test
+    void testMessageIdsAscend() {
+        String earlier = PromptSpool.messageId(7, 1_700_000_000_000L);
+        String later = PromptSpool.messageId(1, 1_700_000_000_001L);
+        assertTrue(earlier.compareTo(later) < 0);
+        assertEquals("msg_".length() + 12 + 14, earlier.length());
+    }
+
+    @Test
+    void testLegacyPromptHasNoMessageId(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("prompts.spool");
+        byte[] text = "old".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + Integer.BYTES + text.length + Integer.BYTES + 1);
+        record.put((byte) 'P').putLong(1).putInt(Integer.BYTES + text.length).putInt(0).put(text);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue()).put((byte) 0x5A);
+        Files.write(file, record.array());
+
+        PromptSpool spool = PromptSpool.open(file);
+        assertEquals("old", spool.peek().getText());
+        assertNull(spool.peek().getMessageId());
+        spool.close();
+    }
+}
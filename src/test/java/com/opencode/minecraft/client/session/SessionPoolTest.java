@@ -0,0 +1,130 @@
+package com.opencode.minecraft.client.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SessionPool refilling, expiry and cleanup.
+ */
+class SessionPoolTest {
+    private final List<CompletableFuture<SessionInfo>> creations = new ArrayList<>();
+    private final List<String> deleted = new ArrayList<>();
+    private long now = 0;
+
+    private final SessionPool pool = new SessionPool(
+            directory -> {
+                CompletableFuture<SessionInfo> future = new CompletableFuture<>();
+                creations.add(future);
+                return future;
+            },
+            sessionId -> {
+                deleted.add(sessionId);
+                return CompletableFuture.completedFuture(null);
+            },
+            () -> now);
+
+    private static SessionInfo session(String id) {
+        return new SessionInfo(id, "New session", "/work", 0, 0);
+    }
+
+    @Test
+    void testTakeHandsOutSpareAndRefills() {
+        assertNull(pool.take("/work"));
+        assertEquals(1, creations.size());
+
+        // Already on its way: no second request
+        pool.fill("/work");
+        assertEquals(1, creations.size());
+
+        creations.get(0).complete(session("ses_1"));
+        assertTrue(pool.isSpare("ses_1"));
+
+        assertEquals("ses_1", pool.take("/work").getId());
+        assertFalse(pool.isSpare("ses_1"));
+        assertEquals(2, creations.size());
+    }
+
+    @Test
+    void testKeepsOneSparePerDirectory() {
+        pool.fill("/a");
+        pool.fill("/b");
+        creations.get(0).complete(session("ses_a"));
+        creations.get(1).complete(session("ses_b"));
+
+        assertEquals("ses_b", pool.take("/b").getId());
+        assertEquals(1, pool.size());
+        assertTrue(pool.isSpare("ses_a"));
+    }
+
+    @Test
+    void testExpiredSpareIsDeleted() {
+        pool.fill("/work");
+        creations.get(0).complete(session("ses_old"));
+
+        now = 999;
+        pool.expire(1000);
+        assertTrue(pool.isSpare("ses_old"));
+
+        now = 1000;
+        pool.expire(1000);
+        assertFalse(pool.isSpare("ses_old"));
+        assertEquals(List.of("ses_old"), deleted);
+
+        pool.fill("/work");
+        assertEquals(2, creations.size());
+    }
+
+    @Test
+    void testFailedCreationBacksOff() {
+        pool.fill("/work");
+        creations.get(0).completeExceptionally(new RuntimeException("server down"));
+
+        pool.fill("/work");
+        assertEquals(1, creations.size());
+
+        now += SessionPool.RETRY_MS;
+        pool.fill("/work");
+        assertEquals(2, creations.size());
+    }
+
+    @Test
+    void testClearDuringFillDropsOldSpare() {
+        pool.fill("/work");
+
+        // The server changes while the spare is still being created
+        pool.clear();
+        pool.fill("/work");
+        assertEquals(2, creations.size(), "A new fill starts for the new server");
+
+        creations.get(0).complete(session("ses_old"));
+        assertFalse(pool.isSpare("ses_old"));
+        assertEquals(List.of("ses_old"), deleted);
+
+        // The stale completion leaves the new fill in flight
+        pool.fill("/work");
+        assertEquals(2, creations.size());
+        creations.get(1).complete(session("ses_new"));
+        assertEquals("ses_new", pool.take("/work").getId());
+    }
+
+    @Test
+    void testCloseDeletesSparesAndLateArrivals() {
+        pool.fill("/a");
+        pool.fill("/b");
+        creations.get(0).complete(session("ses_a"));
+
+        pool.close();
+        creations.get(1).complete(session("ses_b"));
+
+        assertEquals(List.of("ses_a", "ses_b"), deleted);
+        assertEquals(0, pool.size());
+
+        pool.fill("/a");
+        assertEquals(2, creations.size());
+    }
+}
@@ -0,0 +1,144 @@
+package com.opencode.minecraft.client.session;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for SessionSearchIndex ranking and persistence.
+ */
+class SessionSearchIndexTest {
+
+    @Test
+    void testTitleMatchesRankAboveTranscriptMatches(@TempDir Path tempDir) {
+        SessionSearchIndex index = new SessionSearchIndex(tempDir.resolve("search.log"));
+        index.updateSession("ses_a", "Fix redstone clock", 1);
+        index.updateSession("ses_b", "Refactor build", 2);
+        index.addText("ses_b", "The redstone wiring is mentioned here once");
+        index.close();
+
+        List<SessionSearchIndex.Result> results = index.search("redstone", 10);
+        assertEquals(2, results.size());
+        assertEquals("ses_a", results.get(0).getSessionId());
+        assertEquals("ses_b", results.get(1).getSessionId());
+    }
+
+    @Test
+    void testAllTermsContributeAndLastIsPrefix(@TempDir Path tempDir) {
+        SessionSearchIndex index = new SessionSearchIndex(tempDir.resolve("search.log"));
+        index.updateSession("ses_a", "Gradle build", 1);
+        index.updateSession("ses_b", "Gradle wrapper upgrade", 2);
+        index.close();
+
+        List<SessionSearchIndex.Result> results = index.search("gradle wrap", 10);
+        assertEquals("ses_b", results.get(0).getSessionId());
+        assertTrue(index.search("zzz", 10).isEmpty());
+    }
+
+    @Test
+    void testRenamedTitleReplacesOldTerms(@TempDir Path tempDir) {
+        SessionSearchIndex index = new SessionSearchIndex(tempDir.resolve("search.log"));
+        index.updateSession("ses_a", "Old name", 1);
+        index.updateSession("ses_a", "Shiny title", 2);
+        // An out-of-date listing must not undo the rename
+        index.updateSession("ses_a", "Old name", 1);
+        index.close();
+
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals("Shiny title", index.search("shiny", 10).get(0).getTitle());
+    }
+
+    @Test
+    void testIndexSurvivesReload(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("search.log");
+        SessionSearchIndex index = new SessionSearchIndex(file);
+        index.updateSession("ses_a", "Chunk loader", 1);
+        index.addText("ses_a", "Use a ticket to keep the chunk loaded");
+        index.close();
+
+        SessionSearchIndex reloaded = new SessionSearchIndex(file);
+        reloaded.load();
+        assertTrue(reloaded.isLoaded());
+        assertEquals(1, reloaded.size());
+        assertEquals("ses_a", reloaded.search("ticket", 10).get(0).getSessionId());
+        reloaded.close();
+    }
+
+    @Test
+    void testCompactionKeepsScores(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("search.log");
+        SessionSearchIndex index = new SessionSearchIndex(file);
+        index.updateSession("ses_a", "Pathfinding", 1);
+        index.updateSession("ses_b", "Other", 1);
+        for (int i = 0; i < 1500; i++) {
+            index.addText(i % 2 == 0 ? "ses_a" : "ses_b", "pathfinding line " + i);
+        }
+        index.close();
+        double before = index.search("pathfinding", 10).get(0).getScore();
+
+        // Loading compacts the long log; a second load reads the compact form
+        SessionSearchIndex compacted = new SessionSearchIndex(file);
+        compacted.load();
+        compacted.close();
+
+        SessionSearchIndex reloaded = new SessionSearchIndex(file);
+        reloaded.load();
+        List<SessionSearchIndex.Result> results = reloaded.search("pathfinding", 10);
+        assertEquals("ses_a", results.get(0).getSessionId());
+        assertEquals(before, results.get(0).getScore(), 1e-9);
+        reloaded.close();
+    }
+
+    @Test
+    void testLogIsCompactedWhileWriting(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("search.log");
+        SessionSearchIndex index = new SessionSearchIndex(file);
+        index.updateSession("ses_a", "Long session", 1);
+        for (int i = 0; i < SessionSearchIndex.COMPACT_SLACK * 3; i++) {
+            index.addText("ses_a", "line " + i);
+        }
+        index.close();
+
+        // Never reloaded, yet the log stays within twice its compact form plus the slack
+        assertTrue(Files.readAllLines(file).size() <= 2 * 2 + SessionSearchIndex.COMPACT_SLACK);
+        SessionSearchIndex reloaded = new SessionSearchIndex(file);
+        reloaded.load();
+        assertEquals(index.search("line", 10).get(0).getScore(), reloaded.search("line", 10).get(0).getScore(), 1e-9);
+        reloaded.close();
+    }
+
+    @Test
+    void testRewriteWaitsInProportionToIndexSize(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("search.log");
+        SessionSearchIndex index = new SessionSearchIndex(file);
+        for (int i = 0; i < 600; i++) {
+            index.updateSession("ses_" + i, "Session " + i, 1);
+        }
+        // Past a fixed slack over the ~1200-record compact form, but not past twice it
+        for (int i = 0; i < 2000; i++) {
+            index.addText("ses_" + (i % 600), "line " + i);
+        }
+        index.close();
+
+        assertEquals(2600, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void testLinesWithoutWordsAreIgnored(@TempDir Path tempDir) {
+        SessionSearchIndex index = new SessionSearchIndex(tempDir.resolve("search.log"));
+        index.addText("ses_a", "- * -");
+        index.close();
+
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testTokenizeDropsShortWordsAndLowercases() {
+        assertEquals(List.of("hello", "world", "42"), SessionSearchIndex.tokenize("Hello, a World! 42"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.opencode.minecraft.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ConfigPersister debouncing and atomic writes.
+ */
+class ConfigPersisterTest {
+
+    @Test
+    void testBurstIsCoalescedIntoOneWrite(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("opencode.json");
+        AtomicInteger writes = new AtomicInteger();
+        AtomicInteger value = new AtomicInteger();
+        ConfigPersister persister = new ConfigPersister(file, () -> {
+            writes.incrementAndGet();
+            return "{\"value\": " + value.get() + "}";
+        }, 10_000);
+
+        for (int i = 1; i <= 100; i++) {
+            value.set(i);
+            persister.requestSave();
+        }
+        assertFalse(Files.exists(file), "Nothing should be written before the debounce elapses");
+
+        persister.flush();
+        assertEquals(1, writes.get());
+        assertEquals("{\"value\": 100}", Files.readString(file));
+    }
+
+    @Test
+    void testDebouncedWriteHappensInBackground(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("opencode.json");
+        ConfigPersister persister = new ConfigPersister(file, () -> "{}", 10);
+
+        persister.requestSave();
+        for (int i = 0; i < 200 && !Files.exists(file); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals("{}", Files.readString(file));
+        persister.flush();
+    }
+
+    @Test
+    void testReplacesExistingFileWithoutLeavingTemp(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("opencode.json");
+        Files.writeString(file, "{\"old\": true}");
+
+        ConfigPersister persister = new ConfigPersister(file, () -> "{\"old\": false}", 10_000);
+        persister.requestSave();
+        persister.flush();
+
+        assertEquals("{\"old\": false}", Files.readString(file));
+        assertFalse(Files.exists(tempDir.resolve("opencode.json.tmp")));
+    }
+
+    @Test
+    void testFlushWithoutChangesDoesNotWrite(@TempDir Path tempDir) {
+        Path file = tempDir.resolve("opencode.json");
+        ConfigPersister persister = new ConfigPersister(file, () -> "{}", 10);
+
+        persister.flush();
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testSaveAfterFlushWritesImmediately(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("opencode.json");
+        ConfigPersister persister = new ConfigPersister(file, () -> "{\"late\": true}", 10_000);
+
+        persister.flush();
+        persister.requestSave();
+        assertEquals("{\"late\": true}", Files.readString(file));
+    }
+}
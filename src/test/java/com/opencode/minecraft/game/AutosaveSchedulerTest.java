@@ -0,0 +1,60 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for AutosaveScheduler save-on-pause and postponement.
+ */
+class AutosaveSchedulerTest {
+
+    @Test
+    void testSavesOnceOnEnteringPause() {
+        AutosaveScheduler scheduler = new AutosaveScheduler();
+        int ticksUntilAutosave = AutosaveScheduler.AUTOSAVE_INTERVAL_TICKS - AutosaveScheduler.MIN_TICKS_BETWEEN_SAVES;
+
+        assertFalse(scheduler.shouldSaveOnPause(false, ticksUntilAutosave));
+        assertTrue(scheduler.shouldSaveOnPause(true, ticksUntilAutosave));
+        assertFalse(scheduler.shouldSaveOnPause(true, ticksUntilAutosave), "Only on entering the pause");
+
+        scheduler.shouldSaveOnPause(false, ticksUntilAutosave);
+        assertTrue(scheduler.shouldSaveOnPause(true, ticksUntilAutosave));
+    }
+
+    @Test
+    void testSkipsSaveRightAfterAnother() {
+        AutosaveScheduler scheduler = new AutosaveScheduler();
+        int ticksUntilAutosave = AutosaveScheduler.AUTOSAVE_INTERVAL_TICKS - 100;
+
+        assertFalse(scheduler.shouldSaveOnPause(true, ticksUntilAutosave));
+    }
+
+    @Test
+    void testLeavesCountdownAloneUntilDue() {
+        AutosaveScheduler scheduler = new AutosaveScheduler();
+        assertEquals(500, scheduler.postponeAutosave(true, 500));
+        assertEquals(1, scheduler.postponeAutosave(false, 1));
+    }
+
+    @Test
+    void testPostponesWhileGeneratingWithinBound() {
+        AutosaveScheduler scheduler = new AutosaveScheduler();
+        int postponed = 0;
+        int ticksUntilAutosave = 1;
+
+        // Vanilla counts down by one each tick and saves when it reaches zero
+        while (true) {
+            int next = scheduler.postponeAutosave(true, ticksUntilAutosave);
+            if (next <= 1) break;
+            postponed++;
+            ticksUntilAutosave = next - 1;
+        }
+
+        assertTrue(postponed > 0);
+        assertTrue(postponed <= AutosaveScheduler.MAX_POSTPONE_TICKS);
+
+        // After saving, the next autosave can be postponed again
+        assertEquals(1 + AutosaveScheduler.RETRY_TICKS, scheduler.postponeAutosave(true, 1));
+    }
+}
@@ -0,0 +1,61 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for BlockSnapshot palette and run-length encoding.
+ */
+class BlockSnapshotTest {
+    private static final Function<String, String> NAMES = block -> "minecraft:" + block;
+
+    @Test
+    void testEncodesPaletteAndRuns() {
+        BlockSnapshot<String> snapshot = new BlockSnapshot<>(10, 64, -5, 4, 1, 1);
+        snapshot.set(10, 64, -5, "stone");
+        snapshot.set(11, 64, -5, "stone");
+        snapshot.set(13, 64, -5, "dirt");
+
+        assertEquals("""
+                origin 10 64 -5
+                size 4 1 1
+                palette
+                0 minecraft:air
+                1 minecraft:stone
+                2 minecraft:dirt
+                layers
+                y=64 1*2 0 2
+                """, snapshot.encode(NAMES));
+    }
+
+    @Test
+    void testDropsTrailingAirAndEmptyLayers() {
+        BlockSnapshot<String> snapshot = new BlockSnapshot<>(0, 0, 0, 3, 3, 2);
+        snapshot.set(0, 0, 0, "stone");
+        snapshot.set(1, 2, 1, "glass");
+
+        String encoded = snapshot.encode(NAMES);
+        assertTrue(encoded.endsWith("layers\ny=0 1\ny=2 0*4 2\n"), encoded);
+        assertFalse(encoded.contains("y=1"));
+    }
+
+    @Test
+    void testSharesPaletteEntryForSameName() {
+        BlockSnapshot<String> snapshot = new BlockSnapshot<>(0, 0, 0, 2, 1, 1);
+        // Distinct objects, e.g. two states of one block
+        snapshot.set(0, 0, 0, new String("log"));
+        snapshot.set(1, 0, 0, new String("log"));
+
+        String encoded = snapshot.encode(NAMES);
+        assertFalse(encoded.contains("2 minecraft:log"));
+        assertTrue(encoded.endsWith("y=0 1*2\n"), encoded);
+    }
+
+    @Test
+    void testCountsAllBlocksInBox() {
+        assertEquals(3 * 4 * 5, new BlockSnapshot<String>(0, 0, 0, 3, 4, 5).getBlockCount());
+    }
+}
@@ -0,0 +1,80 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ChunkPregenerator spiral walk.
+ */
+class ChunkPregeneratorTest {
+    private static final Object OVERWORLD = new Object();
+    private static final Object NETHER = new Object();
+
+    @Test
+    void testCoversSquareOnceNearestFirst() {
+        ChunkPregenerator walk = new ChunkPregenerator();
+        walk.recenter(OVERWORLD, 10, -5);
+
+        Set<Long> seen = new HashSet<>();
+        int lastDistance = 0;
+        while (walk.advance(3)) {
+            int distance = Math.max(Math.abs(walk.getX() - 10), Math.abs(walk.getZ() + 5));
+            assertTrue(distance <= 3);
+            assertTrue(distance >= lastDistance, "Rings are visited nearest first");
+            lastDistance = distance;
+            assertTrue(seen.add(((long) walk.getX() << 32) | (walk.getZ() & 0xffffffffL)), "Visited twice");
+        }
+
+        assertEquals(7 * 7, seen.size());
+        assertEquals(7 * 7, walk.getVisited());
+        assertTrue(walk.isDone(3));
+    }
+
+    @Test
+    void testProgressCarriesOverForSmallMoves() {
+        ChunkPregenerator walk = new ChunkPregenerator();
+        walk.recenter(OVERWORLD, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            walk.advance(8);
+        }
+
+        walk.recenter(OVERWORLD, 2, -1);
+        assertEquals(5, walk.getVisited());
+
+        walk.recenter(OVERWORLD, ChunkPregenerator.RECENTER_DISTANCE, 0);
+        assertEquals(0, walk.getVisited());
+    }
+
+    @Test
+    void testDimensionChangeStartsOver() {
+        ChunkPregenerator walk = new ChunkPregenerator();
+        walk.recenter(OVERWORLD, 0, 0);
+        walk.advance(8);
+        walk.advance(8);
+
+        walk.recenter(NETHER, 0, 0);
+        assertEquals(0, walk.getVisited());
+        assertTrue(walk.advance(8));
+        assertEquals(0, walk.getX());
+        assertEquals(0, walk.getZ());
+    }
+
+    @Test
+    void testRadiusCanGrowAfterFinishing() {
+        ChunkPregenerator walk = new ChunkPregenerator();
+        walk.recenter(OVERWORLD, 0, 0);
+        while (walk.advance(1)) {
+            // Finish the inner 3x3
+        }
+
+        int more = 0;
+        while (walk.advance(2)) {
+            more++;
+        }
+        assertEquals(16, more);
+    }
+}
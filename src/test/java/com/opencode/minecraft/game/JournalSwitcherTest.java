@@ -0,0 +1,90 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for JournalSwitcher attaching session journals in the background.
+ */
+class JournalSwitcherTest {
+
+    private static final long HEAP_BUDGET = 16 * 1024;
+    private static final long SPILL_BUDGET = 256 * 1024;
+
+    private static TranscriptLine line(int i) {
+        return new TranscriptLine(TranscriptLine.Kind.ASSISTANT, "line " + i);
+    }
+
+    private static void writeJournal(Path directory, String sessionId, int lines) throws IOException {
+        TranscriptJournal journal = TranscriptJournal.open(directory, sessionId);
+        for (int i = 0; i < lines; i++) {
+            journal.append(line(i));
+        }
+        journal.close();
+    }
+
+    @Test
+    void testJournaledSessionIsShownOnce(@TempDir Path tempDir) throws IOException {
+        writeJournal(tempDir, "ses_a", 3);
+        TranscriptBuffer transcript = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        JournalSwitcher switcher = new JournalSwitcher(transcript, tempDir, Runnable::run);
+
+        // As OpenCodeClient does: page in server history only if the journal restored nothing
+        int restored = switcher.switchTo("ses_a").thenApply(count -> {
+            if (count == 0) {
+                transcript.prependHistory(List.of(line(0), line(1), line(2)));
+            }
+            return count;
+        }).join();
+
+        assertEquals(3, restored);
+        assertEquals(3, transcript.size());
+        Set<String> texts = new HashSet<>();
+        for (int i = 0; i < transcript.size(); i++) {
+            assertTrue(texts.add(transcript.get(i).getText()), "Line shown twice: " + transcript.get(i).getText());
+        }
+        switcher.shutdown();
+    }
+
+    @Test
+    void testNewSessionRestoresNothing(@TempDir Path tempDir) {
+        TranscriptBuffer transcript = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        JournalSwitcher switcher = new JournalSwitcher(transcript, tempDir, Runnable::run);
+
+        assertEquals(0, (int) switcher.switchTo("ses_new").join());
+        assertEquals(0, (int) switcher.switchTo(null).join());
+        switcher.shutdown();
+    }
+
+    @Test
+    void testSupersededSwitchIsNotAttached(@TempDir Path tempDir) throws Exception {
+        writeJournal(tempDir, "ses_a", 2);
+        writeJournal(tempDir, "ses_b", 5);
+        TranscriptBuffer transcript = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        // Game thread tasks run only when the test says so
+        BlockingQueue<Runnable> gameThread = new LinkedBlockingQueue<>();
+        JournalSwitcher switcher = new JournalSwitcher(transcript, tempDir, gameThread::add);
+
+        CompletableFuture<Integer> first = switcher.switchTo("ses_a");
+        CompletableFuture<Integer> second = switcher.switchTo("ses_b");
+        while (!first.isDone() || !second.isDone()) {
+            gameThread.take().run();
+        }
+
+        assertEquals(-1, (int) first.join());
+        assertEquals(5, (int) second.join());
+        assertEquals(5, transcript.size());
+        switcher.shutdown();
+    }
+}
@@ -0,0 +1,146 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PartStreamMultiplexer per-part buffering.
+ */
+class PartStreamMultiplexerTest {
+
+    private PartStreamMultiplexer streams;
+    private List<String> lines;
+
+    @BeforeEach
+    void setUp() {
+        streams = new PartStreamMultiplexer();
+        lines = new ArrayList<>();
+    }
+
+    @Test
+    void testInterleavedPartsStaySeparate() {
+        // Two parts streaming at the same time must not mix their text
+        streams.append("msg1", "partA", "Hello ");
+        streams.append("msg1", "partB", "Foo ");
+        streams.append("msg1", "partA", "world\n");
+        streams.append("msg1", "partB", "bar\n");
+
+        streams.drain(0, lines::add, false);
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.contains("Hello world"));
+        assertTrue(lines.contains("Foo bar"));
+    }
+
+    @Test
+    void testPartialLineIsHeldBack() {
+        streams.append("msg1", "partA", "incomplete");
+        streams.drain(0, lines::add, false);
+
+        assertTrue(lines.isEmpty(), "Unterminated text should wait for more deltas");
+    }
+
+    @Test
+    void testStalePartialLineIsFlushed() {
+        streams.append("msg1", "partA", "incomplete");
+        streams.drain(0, lines::add, false);
+        streams.drain(10_000, lines::add, false);
+
+        assertEquals(List.of("incomplete"), lines);
+    }
+
+    @Test
+    void testCompletionFlushesAndFreesBuffer() {
+        streams.append("msg1", "partA", "last line");
+        streams.complete("msg1", "partA");
+        assertEquals(1, streams.activeParts());
+
+        streams.drain(0, lines::add, false);
+
+        assertEquals(List.of("last line"), lines);
+        assertEquals(0, streams.activeParts(), "Completed part should release its buffer");
+    }
+
+    @Test
+    void testFlushAllEmitsRemainders() {
+        streams.append("msg1", "partA", "one");
+        streams.append("msg2", "partA", "two");
+        streams.drain(0, lines::add, true);
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.contains("one"));
+        assertTrue(lines.contains("two"));
+    }
+
+    @Test
+    void testEmptyLinesAreSkipped() {
+        streams.append("msg1", "partA", "a\n\n\nb\n");
+        streams.drain(0, lines::add, false);
+
+        assertEquals(List.of("a", "b"), lines);
+    }
+
+    @Test
+    void testMissingIdsShareOneBuffer() {
+        streams.append(null, null, "foo ");
+        streams.append(null, null, "bar\n");
+        streams.drain(0, lines::add, false);
+
+        assertEquals(List.of("foo bar"), lines);
+    }
+
+    @Test
+    void testConcurrentProducersKeepPerPartOrder() throws InterruptedException {
+        int parts = 4;
+        int linesPerPart = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+
+        for (int p = 0; p < parts; p++) {
+            String partId = "part" + p;
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < linesPerPart; i++) {
+                    streams.append("msg", partId, partId + ":");
+                    streams.append("msg", partId, i + "\n");
+                }
+                streams.complete("msg", partId);
+            });
+            producers.add(t);
+            t.start();
+        }
+
+        start.countDown();
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            streams.drain(0, lines::add, false);
+        }
+        for (Thread t : producers) {
+            t.join();
+        }
+        streams.drain(0, lines::add, false);
+
+        assertEquals(parts * linesPerPart, lines.size());
+        for (int p = 0; p < parts; p++) {
+            String prefix = "part" + p + ":";
+            int expected = 0;
+            for (String line : lines) {
+                if (line.startsWith(prefix)) {
+                    assertEquals(prefix + expected, line, "Lines of a part must arrive intact and in order");
+                    expected++;
+                }
+            }
+            assertEquals(linesPerPart, expected);
+        }
+        assertEquals(0, streams.activeParts());
+    }
+}
@@ -138,4 +138,63 @@ class PauseControllerTest {
         controller.setStatus(SessionStatus.IDLE);
         assertEquals(SessionStatus.IDLE, controller.getStatus());
     }
+
+    @Test
+    void testPausesOnlyAfterJoinGracePeriod() {
+        long[] now = {0};
+        PauseController controller = new PauseController(() -> now[0]);
+        controller.setStatus(SessionStatus.IDLE);
+        assertFalse(controller.shouldGameBePaused(), "Not in a world yet");
+
+        controller.onWorldJoin(true);
+        assertFalse(controller.shouldGameBePaused(), "Still in the grace period");
+
+        now[0] = 2999;
+        controller.tick();
+        assertFalse(controller.shouldGameBePaused());
+
+        now[0] = 3000;
+        controller.tick();
+        assertTrue(controller.shouldGameBePaused());
+    }
+
+    @Test
+    void testDecisionFollowsTransitions() {
+        long[] now = {0};
+        PauseController controller = new PauseController(() -> now[0]);
+        controller.onWorldJoin(true);
+        now[0] = 3000;
+        controller.tick();
+
+        controller.setStatus(SessionStatus.GENERATING);
+        assertFalse(controller.shouldGameBePaused());
+
+        controller.setUserTyping(true);
+        assertTrue(controller.shouldGameBePaused());
+        controller.setUserTyping(false);
+        assertFalse(controller.shouldGameBePaused());
+
+        controller.setStatus(SessionStatus.IDLE);
+        assertTrue(controller.shouldGameBePaused());
+
+        controller.setEnabled(false);
+        assertFalse(controller.shouldGameBePaused());
+        controller.setEnabled(true);
+        assertTrue(controller.shouldGameBePaused());
+
+        controller.onWorldUnload();
+        assertFalse(controller.shouldGameBePaused());
+    }
+
+    @Test
+    void testNeverPausesMultiplayer() {
+        long[] now = {0};
+        PauseController controller = new PauseController(() -> now[0]);
+        controller.setStatus(SessionStatus.IDLE);
+        controller.onWorldJoin(false);
+
+        now[0] = 60_000;
+        controller.tick();
+        assertFalse(controller.shouldGameBePaused());
+    }
 }
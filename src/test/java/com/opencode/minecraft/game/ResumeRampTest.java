@@ -0,0 +1,144 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ResumeRamp, including simulated server timing around pause transitions.
+ */
+class ResumeRampTest {
+
+    @Test
+    void testShortPauseResumesAtFullSpeed() {
+        ResumeRamp ramp = new ResumeRamp();
+        for (int i = 0; i < ResumeRamp.LONG_PAUSE_TICKS - 1; i++) {
+            assertFalse(ramp.onTick(true));
+        }
+        assertTrue(ramp.onTick(false), "Resume is reported so the tick clock is reset");
+        assertFalse(ramp.isRamping());
+        assertEquals(1.0f, ramp.getRateFraction());
+    }
+
+    @Test
+    void testLongPauseRampsUpGradually() {
+        ResumeRamp ramp = new ResumeRamp();
+        for (int i = 0; i < ResumeRamp.LONG_PAUSE_TICKS; i++) {
+            ramp.onTick(true);
+        }
+        assertTrue(ramp.onTick(false));
+        assertEquals(ResumeRamp.START_FRACTION, ramp.getRateFraction());
+
+        float last = ramp.getRateFraction();
+        for (int i = 1; i < ResumeRamp.RAMP_TICKS; i++) {
+            assertFalse(ramp.onTick(false));
+            assertTrue(ramp.getRateFraction() > last);
+            last = ramp.getRateFraction();
+        }
+        ramp.onTick(false);
+        assertFalse(ramp.isRamping());
+        assertEquals(1.0f, ramp.getRateFraction());
+    }
+
+    @Test
+    void testPausingAgainCancelsRamp() {
+        ResumeRamp ramp = new ResumeRamp();
+        for (int i = 0; i < ResumeRamp.LONG_PAUSE_TICKS; i++) {
+            ramp.onTick(true);
+        }
+        ramp.onTick(false);
+        ramp.onTick(true);
+        assertFalse(ramp.isRamping());
+    }
+
+    @Test
+    void testResetClockAvoidsCatchUpBurst() {
+        // One slow paused tick (e.g. a save) leaves the tick clock 600ms behind
+        SimulatedServer withoutReset = new SimulatedServer(false);
+        SimulatedServer withReset = new SimulatedServer(true);
+        for (SimulatedServer server : List.of(withoutReset, withReset)) {
+            server.run(true, 100, 1.0);
+            server.run(true, 1, 600.0);
+            server.run(false, 40, 20.0);
+        }
+
+        // Vanilla makes up the lag with back-to-back ticks: busy for whole windows
+        assertTrue(withoutReset.peakMspt() > 45, "Expected a catch-up burst, got " + withoutReset.peakMspt());
+        // With the clock reset, resumed ticks stay on the 50ms schedule
+        assertTrue(withReset.peakMspt() <= 20.0 + 1e-9, "Expected no burst, got " + withReset.peakMspt());
+    }
+
+    @Test
+    void testRampLowersWorkRightAfterResume() {
+        SimulatedServer ramped = new SimulatedServer(true);
+        ramped.run(true, ResumeRamp.LONG_PAUSE_TICKS, 1.0);
+        ramped.run(false, ResumeRamp.RAMP_TICKS * 2, 20.0);
+
+        // Work per second in the first second is below full speed, then gets back to it
+        double firstSecond = ramped.workBetween(ramped.resumedAt, ramped.resumedAt + 1000);
+        double steady = ramped.workBetween(ramped.now - 1000, ramped.now);
+        assertTrue(firstSecond < steady, firstSecond + " should be below " + steady);
+        assertEquals(20 * 20.0, steady, 20.0);
+    }
+
+    /**
+     * Models the vanilla server loop: the next tick starts tickStart + 50ms /
+     * rate, and ticks run back-to-back while the clock is behind. Each tick
+     * costs the given milliseconds of work.
+     */
+    private static class SimulatedServer {
+        private final boolean resetClock;
+        private final ResumeRamp ramp = new ResumeRamp();
+        private final List<double[]> ticks = new ArrayList<>();
+        double now = 0;
+        double tickStart = 0;
+        double resumedAt = -1;
+
+        SimulatedServer(boolean resetClock) {
+            this.resetClock = resetClock;
+        }
+
+        void run(boolean paused, int count, double costMs) {
+            for (int i = 0; i < count; i++) {
+                now = Math.max(now, tickStart);
+                if (ramp.onTick(paused)) {
+                    resumedAt = now;
+                    if (resetClock) {
+                        tickStart = now;
+                    }
+                }
+                double rate = TickRateGovernor.FULL_RATE * ramp.getRateFraction();
+                ticks.add(new double[]{now, costMs});
+                now += costMs;
+                tickStart += 1000.0 / rate;
+            }
+        }
+
+        /**
+         * Milliseconds of work started in [from, to)
+         */
+        double workBetween(double from, double to) {
+            double work = 0;
+            for (double[] tick : ticks) {
+                if (tick[0] >= from && tick[0] < to) {
+                    work += tick[1];
+                }
+            }
+            return work;
+        }
+
+        /**
+         * Highest work in any 50ms window after resuming
+         */
+        double peakMspt() {
+            double peak = 0;
+            for (double t = resumedAt; t < now; t += 50) {
+                peak = Math.max(peak, workBetween(t, t + 50));
+            }
+            return peak;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.opencode.minecraft.game;
+
+import com.opencode.minecraft.client.session.SessionStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TickRateGovernor smoothing and rate selection.
+ */
+class TickRateGovernorTest {
+
+    /**
+     * Runs the governor for a number of windows with a steady delta rate
+     */
+    private static long run(TickRateGovernor governor, SessionStatus status, long now,
+                            int windows, int deltasPerWindow) {
+        for (int i = 0; i < windows; i++) {
+            for (int d = 0; d < deltasPerWindow; d++) {
+                governor.onDelta();
+            }
+            now += TickRateGovernor.WINDOW_MS;
+            governor.update(status, now);
+        }
+        return now;
+    }
+
+    @Test
+    void testStartsAtFullSpeed() {
+        TickRateGovernor governor = new TickRateGovernor(30);
+        assertEquals(TickRateGovernor.FULL_RATE, governor.getTargetRate());
+    }
+
+    @Test
+    void testBusySettlesInSlowMotion() {
+        TickRateGovernor governor = new TickRateGovernor(30);
+        governor.update(SessionStatus.BUSY, 0);
+        run(governor, SessionStatus.BUSY, 0, 30, 0);
+
+        assertEquals(TickRateGovernor.BUSY_RATE, governor.getTargetRate(), 1.0f);
+    }
+
+    @Test
+    void testGeneratingScalesWithThroughput() {
+        TickRateGovernor governor = new TickRateGovernor(30);
+        governor.update(SessionStatus.GENERATING, 0);
+
+        // 5 deltas per 500ms window = 10 tokens/s, a third of the reference
+        run(governor, SessionStatus.GENERATING, 0, 40, 5);
+        assertEquals(10, governor.getTokensPerSecond(), 0.5f);
+        assertEquals(20.0f / 3, governor.getTargetRate(), 1.0f);
+    }
+
+    @Test
+    void testFastGenerationIsCappedAtFullSpeed() {
+        TickRateGovernor governor = new TickRateGovernor(30);
+        governor.update(SessionStatus.GENERATING, 0);
+        run(governor, SessionStatus.GENERATING, 0, 40, 100);
+
+        assertEquals(TickRateGovernor.FULL_RATE, governor.getTargetRate());
+    }
+
+    @Test
+    void testDeltasBeforeFirstWindowAreDropped() {
+        TickRateGovernor governor = new TickRateGovernor(30);
+        // A backlog counted before the governor's first update
+        for (int i = 0; i < 1000; i++) {
+            governor.onDelta();
+        }
+        governor.update(SessionStatus.GENERATING, 0);
+        run(governor, SessionStatus.GENERATING, 0, 1, 5);
+
+        // Only the window's own 5 deltas (10 tokens/s) count, smoothed in from zero
+        assertEquals(3, governor.getTokensPerSecond(), 0.01f);
+    }
+
+    @Test
+    void testRateChangesGradually() {
+        TickRateGovernor governor = new TickRateGovernor(30);
+        governor.update(SessionStatus.BUSY, 0);
+
+        // One window can't drop all the way from full speed to slow motion
+        run(governor, SessionStatus.BUSY, 0, 1, 0);
+        assertTrue(governor.getTargetRate() > TickRateGovernor.BUSY_RATE + 5);
+    }
+
+    @Test
+    void testSmallJitterIsIgnored() {
+        TickRateGovernor governor = new TickRateGovernor(30);
+        governor.update(SessionStatus.GENERATING, 0);
+        long now = run(governor, SessionStatus.GENERATING, 0, 40, 10);
+        float settled = governor.getTargetRate();
+
+        // Alternate 9 and 11 deltas per window around the same average
+        for (int i = 0; i < 20; i++) {
+            now = run(governor, SessionStatus.GENERATING, now, 1, i % 2 == 0 ? 9 : 11);
+            assertEquals(settled, governor.getTargetRate());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ToolCallTracker lifecycle collapsing.
+ */
+class ToolCallTrackerTest {
+
+    private ToolCallTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new ToolCallTracker();
+    }
+
+    @Test
+    void testLifecycleProducesSingleResult() {
+        // pending -> running -> running -> completed should finish exactly once
+        assertNull(tracker.update("call1", "read", "pending", 0, 0, 1000));
+        assertNull(tracker.update("call1", "read", "running", 0, 0, 1100));
+        assertNull(tracker.update("call1", "read", "running", 0, 0, 1200));
+        assertEquals(1, tracker.getActive().size());
+
+        ToolCallTracker.ToolCall finished = tracker.update("call1", "read", "completed", 0, 0, 2500);
+
+        assertNotNull(finished);
+        assertEquals("completed", finished.getState());
+        assertEquals(1500, finished.getDurationMs(9999), "Duration should span first sighting to completion");
+        assertTrue(tracker.getActive().isEmpty());
+    }
+
+    @Test
+    void testServerTimesTakePrecedence() {
+        tracker.update("call1", "bash", "running", 500, 0, 1000);
+        ToolCallTracker.ToolCall finished = tracker.update("call1", "bash", "completed", 500, 800, 5000);
+
+        assertEquals(300, finished.getDurationMs(5000));
+    }
+
+    @Test
+    void testLateUpdatesAfterFinishAreIgnored() {
+        tracker.update("call1", "edit", "completed", 0, 0, 1000);
+
+        assertNull(tracker.update("call1", "edit", "completed", 0, 0, 1100));
+        assertTrue(tracker.getActive().isEmpty(), "Finished call must not be revived");
+    }
+
+    @Test
+    void testConcurrentCallsTrackedSeparately() {
+        tracker.update("a", "read", "running", 0, 0, 0);
+        tracker.update("b", "grep", "running", 0, 0, 0);
+        assertEquals(2, tracker.getActive().size());
+
+        assertNotNull(tracker.update("b", "grep", "error", 0, 0, 10));
+        assertEquals(1, tracker.getActive().size());
+        assertEquals("a", tracker.getActive().iterator().next().getCallId());
+    }
+
+    @Test
+    void testDirtyOnlyOnStateChange() {
+        tracker.update("call1", "read", "running", 0, 0, 0);
+        assertTrue(tracker.consumeDirty());
+        assertFalse(tracker.consumeDirty());
+
+        // Same state again is not a visible change
+        tracker.update("call1", "read", "running", 0, 0, 10);
+        assertFalse(tracker.consumeDirty());
+    }
+
+    @Test
+    void testTerminalStates() {
+        assertTrue(ToolCallTracker.isTerminal("completed"));
+        assertTrue(ToolCallTracker.isTerminal("error"));
+        assertFalse(ToolCallTracker.isTerminal("running"));
+        assertFalse(ToolCallTracker.isTerminal("pending"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TranscriptBuffer heap budget and spill behavior.
+ */
+class TranscriptBufferTest {
+
+    private static final long HEAP_BUDGET = 16 * 1024;
+    private static final long SPILL_BUDGET = 256 * 1024;
+
+    private static TranscriptLine line(int i) {
+        return new TranscriptLine(TranscriptLine.Kind.ASSISTANT, "line " + i + " with some **markdown** text");
+    }
+
+    @Test
+    void testHeapStaysWithinBudget() {
+        TranscriptBuffer buffer = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        for (int i = 0; i < 5_000; i++) {
+            buffer.append(line(i));
+            assertTrue(buffer.getHeapBytes() <= HEAP_BUDGET, "Heap use must never exceed the budget");
+        }
+
+        assertEquals(5_000, buffer.size());
+        assertTrue(buffer.getSpillBytes() > 0, "Older lines should have spilled off-heap");
+    }
+
+    @Test
+    void testSpilledLinesDecodeOnRead() {
+        TranscriptBuffer buffer = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        for (int i = 0; i < 2_000; i++) {
+            buffer.append(line(i));
+        }
+
+        // Oldest lines live in the spill, newest on the heap
+        assertEquals(line(0).getText(), buffer.get(0).getText());
+        assertEquals(TranscriptLine.Kind.ASSISTANT, buffer.get(0).getKind());
+        assertEquals(line(1234).getText(), buffer.get(1234).getText());
+        assertEquals(line(1999).getText(), buffer.get(1999).getText());
+    }
+
+    @Test
+    void testSpillIsBoundedAndDropsOldest() {
+        TranscriptBuffer buffer = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        for (int i = 0; i < 50_000; i++) {
+            buffer.append(line(i));
+        }
+
+        assertTrue(buffer.getSpillBytes() <= SPILL_BUDGET, "Off-heap use must stay within its budget");
+        assertEquals(TranscriptLine.Kind.SYSTEM, buffer.get(0).getKind(), "Dropped lines show a placeholder");
+        assertEquals(line(49_999).getText(), buffer.get(49_999).getText());
+    }
+
+    @Test
+    void testDroppedLinesComeBackFromJournal(@TempDir Path tempDir) throws IOException {
+        TranscriptBuffer buffer = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        buffer.attachJournal(TranscriptJournal.open(tempDir, "ses_spill"));
+        for (int i = 0; i < 50_000; i++) {
+            buffer.append(line(i));
+        }
+        buffer.clear();
+
+        // Reattaching serves everything from disk without loading it
+        buffer.attachJournal(TranscriptJournal.open(tempDir, "ses_spill"));
+        assertEquals(50_000, buffer.size());
+        assertEquals(0, buffer.getHeapBytes());
+        assertEquals(line(0).getText(), buffer.get(0).getText());
+        assertEquals(line(42_000).getText(), buffer.get(42_000).getText());
+        buffer.clear();
+    }
+
+    @Test
+    void testLateAttachKeepsLinesAddedMeanwhile(@TempDir Path tempDir) throws IOException {
+        TranscriptBuffer buffer = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        buffer.attachJournal(TranscriptJournal.open(tempDir, "ses_late"));
+        buffer.append(line(0));
+        TranscriptJournal detached = buffer.detachJournal();
+        assertEquals(0, buffer.size());
+        detached.close();
+
+        // Lines arrive while the journal is still being opened in the background
+        buffer.append(line(1));
+        buffer.append(line(2));
+        int generation = buffer.getGeneration();
+        buffer.attachJournal(TranscriptJournal.open(tempDir, "ses_late"));
+
+        assertEquals(3, buffer.size());
+        assertEquals(line(0).getText(), buffer.get(0).getText());
+        assertEquals(line(2).getText(), buffer.get(2).getText());
+        assertNotEquals(generation, buffer.getGeneration(), "Restored lines move the others down");
+        buffer.clear();
+
+        buffer.attachJournal(TranscriptJournal.open(tempDir, "ses_late"));
+        assertEquals(3, buffer.size(), "Lines added before the attach were journaled");
+        assertEquals(line(1).getText(), buffer.get(1).getText());
+        buffer.clear();
+    }
+
+    @Test
+    void testLateAttachNeverJournalsDroppedLines(@TempDir Path tempDir) throws IOException {
+        TranscriptBuffer buffer = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        // Enough lines before the journal attaches for the spill to drop the oldest
+        for (int i = 0; i < 50_000; i++) {
+            buffer.append(line(i));
+        }
+        assertEquals(TranscriptLine.Kind.SYSTEM, buffer.get(0).getKind());
+        buffer.attachJournal(TranscriptJournal.open(tempDir, "ses_gap"));
+        for (int i = 50_000; i < 100_000; i++) {
+            buffer.append(line(i));
+        }
+
+        // Lines recycled out of the spill since the attach come back from the journal
+        assertEquals(line(60_000).getText(), buffer.get(60_000).getText());
+        assertEquals(line(99_999).getText(), buffer.get(99_999).getText());
+        buffer.clear();
+
+        TranscriptJournal journal = TranscriptJournal.open(tempDir, "ses_gap");
+        for (int i = 0; i < journal.size(); i++) {
+            assertEquals(TranscriptLine.Kind.ASSISTANT, journal.read(i).getKind(), "Placeholder journaled at " + i);
+        }
+        assertEquals(line(99_999).getText(), journal.read(journal.size() - 1).getText());
+        journal.close();
+    }
+
+    @Test
+    void testClearBumpsGeneration() {
+        TranscriptBuffer buffer = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        int generation = buffer.getGeneration();
+
+        buffer.append(line(0));
+        assertEquals(generation, buffer.getGeneration(), "Appends must not invalidate layouts");
+
+        buffer.clear();
+        assertNotEquals(generation, buffer.getGeneration());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testPrependedHistoryComesFirst() {
+        TranscriptBuffer buffer = new TranscriptBuffer(HEAP_BUDGET, SPILL_BUDGET);
+        buffer.append(line(100));
+        buffer.prependHistory(List.of(line(10), line(11)));
+        buffer.prependHistory(List.of(line(0), line(1)));
+
+        assertEquals(5, buffer.size());
+        assertEquals(4, buffer.getPrependedCount());
+        assertEquals(line(0).getText(), buffer.get(0).getText());
+        assertEquals(line(1).getText(), buffer.get(1).getText());
+        assertEquals(line(10).getText(), buffer.get(2).getText());
+        assertEquals(line(100).getText(), buffer.get(4).getText());
+    }
+}
@@ -0,0 +1,130 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TranscriptJournal persistence and recovery.
+ */
+class TranscriptJournalTest {
+
+    @Test
+    void testLinesSurviveReopen(@TempDir Path tempDir) throws IOException {
+        TranscriptJournal journal = TranscriptJournal.open(tempDir, "ses_1");
+        journal.append(new TranscriptLine(TranscriptLine.Kind.USER, "hello"));
+        journal.append(new TranscriptLine(TranscriptLine.Kind.ASSISTANT, "**hi** there \u2713"));
+        journal.append(new TranscriptLine(TranscriptLine.Kind.TOOL, "read: completed (12ms)"));
+        journal.close();
+
+        TranscriptJournal reopened = TranscriptJournal.open(tempDir, "ses_1");
+        assertEquals(3, reopened.size());
+
+        TranscriptLine line = reopened.read(1);
+        assertEquals(TranscriptLine.Kind.ASSISTANT, line.getKind());
+        assertEquals("**hi** there \u2713", line.getText());
+        assertEquals("read: completed (12ms)", reopened.read(2).getText());
+        reopened.close();
+    }
+
+    @Test
+    void testRandomAccessAcrossIndexGrowth(@TempDir Path tempDir) throws IOException {
+        // More lines than the initial index mapping holds
+        int count = 40_000;
+        TranscriptJournal journal = TranscriptJournal.open(tempDir, "ses_big");
+        for (int i = 0; i < count; i++) {
+            journal.append(new TranscriptLine(TranscriptLine.Kind.ASSISTANT, "line " + i));
+        }
+        journal.close();
+
+        TranscriptJournal reopened = TranscriptJournal.open(tempDir, "ses_big");
+        assertEquals(count, reopened.size());
+        assertEquals("line 0", reopened.read(0).getText());
+        assertEquals("line 31337", reopened.read(31337).getText());
+        assertEquals("line " + (count - 1), reopened.read(count - 1).getText());
+        reopened.close();
+    }
+
+    @Test
+    void testTornWriteIsDiscarded(@TempDir Path tempDir) throws IOException {
+        TranscriptJournal journal = TranscriptJournal.open(tempDir, "ses_torn");
+        journal.append(new TranscriptLine(TranscriptLine.Kind.SYSTEM, "kept"));
+        journal.close();
+
+        // Simulate a crash after the journal write but before the index update
+        Path file = tempDir.resolve("ses_torn.journal");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 9, 1, 'x'}));
+        }
+
+        TranscriptJournal reopened = TranscriptJournal.open(tempDir, "ses_torn");
+        assertEquals(1, reopened.size());
+        reopened.append(new TranscriptLine(TranscriptLine.Kind.SYSTEM, "after"));
+        reopened.close();
+
+        TranscriptJournal again = TranscriptJournal.open(tempDir, "ses_torn");
+        assertEquals(2, again.size());
+        assertEquals("after", again.read(1).getText());
+        again.close();
+    }
+
+    @Test
+    void testLostIndexIsRebuiltFromJournal(@TempDir Path tempDir) throws IOException {
+        TranscriptJournal journal = TranscriptJournal.open(tempDir, "ses_idx");
+        for (int i = 0; i < 20_000; i++) {
+            journal.append(new TranscriptLine(TranscriptLine.Kind.ASSISTANT, "line " + i));
+        }
+        journal.close();
+
+        // A crash before the mapped index reached disk: the index is empty, the journal is not
+        Files.write(tempDir.resolve("ses_idx.idx"), new byte[0]);
+        TranscriptJournal reopened = TranscriptJournal.open(tempDir, "ses_idx");
+        assertEquals(20_000, reopened.size());
+        assertEquals("line 19999", reopened.read(19_999).getText());
+        reopened.close();
+
+        // Or a stale index claiming fewer lines than were written
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("ses_idx.idx"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, 5), 0);
+        }
+        TranscriptJournal again = TranscriptJournal.open(tempDir, "ses_idx");
+        assertEquals(20_000, again.size());
+        again.close();
+    }
+
+    @Test
+    void testDamagedRecordHeaderEndsJournal(@TempDir Path tempDir) throws IOException {
+        TranscriptJournal journal = TranscriptJournal.open(tempDir, "ses_bad");
+        journal.append(new TranscriptLine(TranscriptLine.Kind.SYSTEM, "kept"));
+        journal.close();
+
+        // A zero-length record, as left by a preallocated but unwritten tail
+        Path file = tempDir.resolve("ses_bad.journal");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0}));
+        }
+        long kept = 4 + 1 + "kept".length();
+
+        TranscriptJournal reopened = TranscriptJournal.open(tempDir, "ses_bad");
+        assertEquals(1, reopened.size());
+        assertEquals("kept", reopened.read(0).getText());
+        reopened.close();
+        assertEquals(kept, Files.size(file));
+    }
+
+    @Test
+    void testSessionIdIsSanitized(@TempDir Path tempDir) throws IOException {
+        TranscriptJournal journal = TranscriptJournal.open(tempDir, "../evil/id");
+        journal.close();
+
+        assertTrue(Files.exists(tempDir.resolve("___evil_id.journal")));
+    }
+}
@@ -0,0 +1,168 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for WorldEditApplier budgeting and undo.
+ */
+class WorldEditApplierTest {
+
+    /**
+     * A world of strings, where every block write costs a microsecond of fake time
+     */
+    private static final class FakeWorld implements WorldEditApplier.BlockAccess<String> {
+        final Map<Long, String> blocks = new HashMap<>();
+        // Chunks not loaded yet, and those asked to load
+        final Set<Long> unloaded = new HashSet<>();
+        final Set<Long> requested = new HashSet<>();
+        long now = 0;
+        int writes = 0;
+
+        @Override
+        public String parse(String block) {
+            return block.startsWith("minecraft:") ? block.intern() : null;
+        }
+
+        @Override
+        public boolean isChunkReady(int x, int z) {
+            long chunk = WorldEditApplier.pack(x >> 4, 0, z >> 4);
+            if (!unloaded.contains(chunk)) return true;
+            requested.add(chunk);
+            return false;
+        }
+
+        @Override
+        public String getBlock(int x, int y, int z) {
+            if (y < 0 || y > 255) return null;
+            return blocks.getOrDefault(WorldEditApplier.pack(x, y, z), "minecraft:air");
+        }
+
+        @Override
+        public void setBlock(int x, int y, int z, String block) {
+            blocks.put(WorldEditApplier.pack(x, y, z), block);
+            now += 1_000;
+            writes++;
+        }
+    }
+
+    @Test
+    void testLargeBuildIsSpreadOverTicks() {
+        FakeWorld world = new FakeWorld();
+        WorldEditApplier<String> applier = new WorldEditApplier<>(() -> world.now);
+        applier.setBudgetMs(1);
+        applier.submit("part", new WorldEdit(0, 0, 0, 19, 9, 19, "minecraft:stone"));
+
+        int ticks = 0;
+        while (applier.hasWork()) {
+            int changed = applier.tick(world);
+            // Never more than the budget plus one clock check's worth of blocks
+            assertTrue(changed <= 1_000 + 16, "changed " + changed);
+            ticks++;
+        }
+
+        assertEquals(4_000, world.writes);
+        assertTrue(ticks >= 4);
+        assertEquals("minecraft:stone", world.getBlock(19, 9, 19));
+    }
+
+    @Test
+    void testUndoRestoresLastBuildOnly() {
+        FakeWorld world = new FakeWorld();
+        world.blocks.put(WorldEditApplier.pack(1, 1, 1), "minecraft:grass_block");
+        WorldEditApplier<String> applier = new WorldEditApplier<>(() -> world.now);
+        applier.submit("first", new WorldEdit(0, 0, 0, 2, 2, 2, "minecraft:dirt"));
+        applier.submit("second", new WorldEdit(1, 1, 1, 3, 1, 1, "minecraft:stone"));
+        applier.submit("second", new WorldEdit(1, 1, 1, 1, 1, 1, "minecraft:glass"));
+        while (applier.hasWork()) applier.tick(world);
+        assertEquals("minecraft:glass", world.getBlock(1, 1, 1));
+
+        CompletableFuture<Integer> undo = applier.requestUndo();
+        while (applier.hasWork()) applier.tick(world);
+
+        assertEquals(4, (int) undo.join());
+        assertEquals("minecraft:dirt", world.getBlock(1, 1, 1));
+        assertEquals("minecraft:air", world.getBlock(3, 1, 1));
+        assertEquals(1, applier.getUndoableBuilds());
+    }
+
+    @Test
+    void testUndoStopsBuildStillGoingUp() {
+        FakeWorld world = new FakeWorld();
+        WorldEditApplier<String> applier = new WorldEditApplier<>(() -> world.now);
+        applier.setBudgetMs(1);
+        applier.submit("part", new WorldEdit(0, 0, 0, 31, 31, 31, "minecraft:stone"));
+        applier.tick(world);
+
+        CompletableFuture<Integer> undo = applier.requestUndo();
+        // Edits the agent writes after the undo are dropped too
+        applier.submit("part", new WorldEdit(50, 0, 0, 50, 0, 0, "minecraft:stone"));
+        while (applier.hasWork()) applier.tick(world);
+
+        assertTrue(undo.join() > 0);
+        assertTrue(world.blocks.values().stream().allMatch("minecraft:air"::equals));
+        assertEquals("minecraft:air", world.getBlock(50, 0, 0));
+    }
+
+    @Test
+    void testSkipsUnknownBlocksAndBlocksOutsideWorld() {
+        FakeWorld world = new FakeWorld();
+        WorldEditApplier<String> applier = new WorldEditApplier<>(() -> world.now);
+        applier.submit("part", new WorldEdit(0, 0, 0, 0, 0, 0, "not_a_block"));
+        applier.submit("part", new WorldEdit(0, 255, 0, 0, 300, 0, "minecraft:stone"));
+        while (applier.hasWork()) applier.tick(world);
+
+        assertEquals(1, world.writes);
+
+        CompletableFuture<Integer> undo = applier.requestUndo();
+        assertFalse(undo.isDone(), "Undo is only picked up by the server thread");
+        applier.tick(world);
+        assertEquals(1, (int) undo.join());
+    }
+
+    @Test
+    void testWaitsForUnloadedChunks() {
+        FakeWorld world = new FakeWorld();
+        long farChunk = WorldEditApplier.pack(1, 0, 0);
+        world.unloaded.add(farChunk);
+        WorldEditApplier<String> applier = new WorldEditApplier<>(() -> world.now);
+        applier.submit("part", new WorldEdit(0, 0, 0, 31, 0, 0, "minecraft:stone"));
+
+        // The loaded half goes in, then the tick stops at the chunk still loading
+        applier.tick(world);
+        assertEquals(16, world.writes);
+        assertTrue(world.requested.contains(farChunk));
+        applier.tick(world);
+        assertEquals(16, world.writes);
+        assertTrue(applier.hasWork());
+
+        world.unloaded.clear();
+        applier.tick(world);
+        assertEquals(32, world.writes);
+        assertFalse(applier.hasWork());
+
+        // Undo waits the same way
+        world.unloaded.add(farChunk);
+        CompletableFuture<Integer> undo = applier.requestUndo();
+        applier.tick(world);
+        assertFalse(undo.isDone());
+        world.unloaded.clear();
+        applier.tick(world);
+        assertEquals(32, (int) undo.join());
+    }
+
+    @Test
+    void testPacksNegativeCoordinates() {
+        long packed = WorldEditApplier.pack(-30_000_000, -64, 29_999_999);
+        assertEquals(-30_000_000, WorldEditApplier.unpackX(packed));
+        assertEquals(-64, WorldEditApplier.unpackY(packed));
+        assertEquals(29_999_999, WorldEditApplier.unpackZ(packed));
+    }
+}
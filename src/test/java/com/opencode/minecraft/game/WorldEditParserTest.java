@@ -0,0 +1,91 @@
+package com.opencode.minecraft.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for WorldEditParser command parsing and streaming.
+ */
+class WorldEditParserTest {
+
+    @Test
+    void testParsesOnlyInsideEditBlocks() {
+        WorldEditParser parser = new WorldEditParser(100, 64, -20);
+        List<WorldEdit> edits = parser.finish("""
+                Here is a small platform:
+                setblock 0 0 0 minecraft:dirt
+                ```mcfunction
+                # floor
+                fill ~-1 ~-1 ~-1 ~1 ~-1 ~1 minecraft:stone
+                /setblock ~ ~2 ~ minecraft:oak_stairs[facing=east, half=top]
+                ```
+                ```java
+                setblock 0 0 0 minecraft:dirt
+                ```
+                """);
+
+        assertEquals(2, edits.size());
+        WorldEdit floor = edits.get(0);
+        assertEquals(99, floor.getMinX());
+        assertEquals(63, floor.getMinY());
+        assertEquals(-19, floor.getMaxZ());
+        assertEquals(9, floor.getVolume());
+        assertEquals("minecraft:oak_stairs[facing=east,half=top]", edits.get(1).getBlock());
+        assertEquals(66, edits.get(1).getMinY());
+        assertEquals(10, parser.getBlockCount());
+        assertEquals(0, parser.getRejected());
+    }
+
+    @Test
+    void testParsesEachLineOnceWhileStreaming() {
+        WorldEditParser parser = new WorldEditParser(0, 0, 0);
+        String text = "```mcfunction\nsetblock 1 2 3 minecraft:stone\nsetblock 4 5 6 minecraft:gla";
+        List<WorldEdit> edits = new ArrayList<>(parser.feed(text));
+        assertEquals(1, edits.size());
+
+        text += "ss\n";
+        edits.addAll(parser.feed(text));
+        edits.addAll(parser.feed(text));
+        assertEquals(2, edits.size());
+        assertEquals("minecraft:glass", edits.get(1).getBlock());
+
+        edits.addAll(parser.finish(text + "setblock 7 8 9 minecraft:dirt"));
+        assertEquals(3, edits.size());
+    }
+
+    @Test
+    void testSplitsHollowFillIntoShellAndAir() {
+        WorldEditParser parser = new WorldEditParser(0, 0, 0);
+        List<WorldEdit> edits = parser.finish("```mcfunction\nfill 0 0 0 4 4 4 minecraft:stone hollow\n```");
+
+        long stone = edits.stream().filter(e -> e.getBlock().equals("minecraft:stone"))
+                .mapToLong(WorldEdit::getVolume).sum();
+        long air = edits.stream().filter(e -> e.getBlock().equals("minecraft:air"))
+                .mapToLong(WorldEdit::getVolume).sum();
+        assertEquals(5 * 5 * 5 - 3 * 3 * 3, stone);
+        assertEquals(3 * 3 * 3, air);
+    }
+
+    @Test
+    void testRejectsUnsupportedAndOversizedEdits() {
+        WorldEditParser parser = new WorldEditParser(0, 0, 0);
+        List<WorldEdit> edits = parser.finish("""
+                ```mcfunction
+                give @p minecraft:diamond
+                setblock ^ ^ ^1 minecraft:stone
+                setblock 0 0 0 minecraft:chest{Items:[]}
+                fill 0 0 0 100 100 100 minecraft:stone
+                setblock 1000 0 0 minecraft:stone
+                fill 0 0 0 1 1 1 minecraft:stone keep
+                setblock 0 0 0 minecraft:stone
+                ```
+                """);
+
+        assertEquals(1, edits.size());
+        assertEquals(6, parser.getRejected());
+    }
+}